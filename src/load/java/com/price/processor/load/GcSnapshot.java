@@ -0,0 +1,35 @@
+package com.price.processor.load;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Collection counts/times per collector and heap usage at some point of the run.
+ */
+public record GcSnapshot(Map<String, long[]> collectors, long heapUsed, long heapCommitted, long heapPeak) {
+	public static GcSnapshot take() {
+		final Map<String, long[]> collectors = new LinkedHashMap<>();
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			collectors.put(gc.getName(), new long[]{gc.getCollectionCount(), gc.getCollectionTime()});
+		}
+
+		long peak = 0L;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) {
+				peak += pool.getPeakUsage().getUsed();
+			}
+		}
+
+		final var heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+
+		return new GcSnapshot(collectors, heap.getUsed(), heap.getCommitted(), peak);
+	}
+
+	public static void resetPeaks() {
+		ManagementFactory.getMemoryPoolMXBeans().forEach(MemoryPoolMXBean::resetPeakUsage);
+	}
+}
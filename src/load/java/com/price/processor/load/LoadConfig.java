@@ -0,0 +1,79 @@
+package com.price.processor.load;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import lombok.Value;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Load harness parameters, read from {@code load.*} system properties.
+ */
+@Value
+public class LoadConfig {
+	Duration duration;
+	Duration drain;
+	int hotPairs;
+	double hotRate;
+	int rarePairs;
+	Duration rareInterval;
+	// Threads publishing the ticks, every pair is published by one of them
+	int producers;
+	List<SubscriberClass> subscriberClasses;
+	Duration softTimeout;
+	Duration hardTimeout;
+	Duration rareThreshold;
+	// Delivery workers of the throttler, its default if null
+	Integer workers;
+	Path reportFile;
+
+	public static LoadConfig fromProperties(@NotNull Properties props) {
+		return new LoadConfig(
+			parseDuration(props.getProperty("load.duration", "60s")),
+			parseDuration(props.getProperty("load.drain", "10s")),
+			Integer.parseInt(props.getProperty("load.hot-pairs", "20")),
+			Double.parseDouble(props.getProperty("load.hot-rate", "100")),
+			Integer.parseInt(props.getProperty("load.rare-pairs", "100")),
+			parseDuration(props.getProperty("load.rare-interval", "10s")),
+			Integer.parseInt(props.getProperty("load.producers", "1")),
+			Arrays.stream(props.getProperty("load.subscribers", "screen:150:fixed:5us:realtime,gateway:45:exp:100ms:standard,printer:5:fixed:2m:bulk").split(","))
+				.filter(s -> !s.isBlank())
+				.map(SubscriberClass::parse)
+				.toList(),
+			parseDuration(props.getProperty("load.soft-timeout", "1s")),
+			parseDuration(props.getProperty("load.hard-timeout", "30m")),
+			parseDuration(props.getProperty("load.rare-threshold", "3s")),
+			props.containsKey("load.workers") ? Integer.valueOf(props.getProperty("load.workers")) : null,
+			Path.of(props.getProperty("load.report-file", "build/reports/load/load-report.txt"))
+		);
+	}
+
+	/**
+	 * Parses durations like {@code 500ns}, {@code 5us}, {@code 100ms}, {@code 10s}, {@code 2m} and {@code 1h}.
+	 */
+	public static Duration parseDuration(@NotNull String value) {
+		final String v = value.trim();
+		int unitStart = 0;
+		while (unitStart < v.length() && (Character.isDigit(v.charAt(unitStart)) || v.charAt(unitStart) == '.')) {
+			unitStart++;
+		}
+		if (unitStart == 0) {
+			throw new IllegalArgumentException(String.format("Invalid duration '%s'", value));
+		}
+
+		final double amount = Double.parseDouble(v.substring(0, unitStart));
+		final long nanosPerUnit = switch (v.substring(unitStart)) {
+			case "ns" -> 1L;
+			case "us" -> 1_000L;
+			case "ms" -> 1_000_000L;
+			case "s", "" -> 1_000_000_000L;
+			case "m" -> 60_000_000_000L;
+			case "h" -> 3_600_000_000_000L;
+			default -> throw new IllegalArgumentException(String.format("Invalid duration unit in '%s'", value));
+		};
+
+		return Duration.ofNanos((long) (amount * nanosPerUnit));
+	}
+}
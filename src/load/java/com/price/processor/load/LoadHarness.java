@@ -0,0 +1,220 @@
+package com.price.processor.load;
+
+import com.price.processor.config.ExchangeRatesConfig;
+import com.price.processor.config.PriceThrottlerConfig;
+import com.price.processor.event.ExchangeRatesChangedEvent;
+import com.price.processor.load.RecordingProcessor.ClassStats;
+import com.price.processor.model.CcyPair;
+import com.price.processor.model.CurrencyTable;
+import com.price.processor.model.dto.OverloadStats;
+import com.price.processor.service.ExchangeRatesMonitor;
+import com.price.processor.service.PriceThrottler;
+import com.price.processor.time.TimeSource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Standalone load and soak harness for {@link PriceThrottler}, run it with {@code gradle loadTest -Dload.duration=5m ...}.
+ * See {@link LoadConfig} for the parameters.
+ * <p>
+ * Ticks are published from {@code load.producers} threads, every thread publishes its share of the pairs like a feed
+ * handler would: hot pairs with exponentially distributed gaps at {@code load.hot-rate} per second, rare pairs roughly
+ * once per {@code load.rare-interval}.
+ */
+@Slf4j
+public class LoadHarness {
+	private static final long DRAIN_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(100L);
+
+	private final LoadConfig config;
+	private final TickLog tickLog;
+	private final ExchangeRatesMonitor monitor;
+	private final PriceThrottler throttler;
+	private final List<RecordingProcessor> processors = new ArrayList<>();
+	private final Map<SubscriberClass, ClassStats> stats = new LinkedHashMap<>();
+
+	public LoadHarness(LoadConfig config) {
+		this.config = config;
+		this.tickLog = tickLog(config);
+		this.monitor = monitor(config, TimeSource.system());
+		this.throttler = throttler(config, monitor, TimeSource.system());
+	}
+
+	static TickLog tickLog(LoadConfig config) {
+		return new TickLog(pairs(config.getHotPairs() + config.getRarePairs()), config.getHotPairs());
+	}
+
+	static ExchangeRatesMonitor monitor(LoadConfig config, TimeSource timeSource) {
+		final ExchangeRatesConfig exchangeRatesConfig = new ExchangeRatesConfig();
+		exchangeRatesConfig.setRareChangingThreshold(config.getRareThreshold());
+
+		return new ExchangeRatesMonitor(exchangeRatesConfig, timeSource);
+	}
+
+	static PriceThrottler throttler(LoadConfig config, ExchangeRatesMonitor monitor, TimeSource timeSource) {
+		final PriceThrottlerConfig throttlerConfig = new PriceThrottlerConfig();
+		throttlerConfig.setMaxSubscribers(config.getSubscriberClasses().stream().mapToInt(SubscriberClass::count).sum());
+		throttlerConfig.setSoftTimeout(config.getSoftTimeout());
+		throttlerConfig.setHardTimeout(config.getHardTimeout());
+		throttlerConfig.setMaxPairs(Math.max(throttlerConfig.getMaxPairs(), config.getHotPairs() + config.getRarePairs()));
+		if (config.getWorkers() != null) {
+			throttlerConfig.setWorkers(config.getWorkers());
+		}
+
+		final PriceThrottler throttler = new PriceThrottler(throttlerConfig, monitor, timeSource);
+		throttler.init();
+
+		return throttler;
+	}
+
+	public static void main(String[] args) throws IOException {
+		final LoadConfig config = LoadConfig.fromProperties(System.getProperties());
+		final String report = new LoadHarness(config).run();
+		log.info("Load report:\n{}", report);
+
+		if (config.getReportFile().getParent() != null) {
+			Files.createDirectories(config.getReportFile().getParent());
+		}
+		Files.writeString(config.getReportFile(), report);
+		log.info("Load report has been written to '{}'", config.getReportFile());
+
+		// Throttler workers are not daemons and slow subscribers may still be busy
+		System.exit(0);
+	}
+
+	public String run() {
+		subscribe(config, throttler, tickLog, TimeSource.system(), processors, stats);
+		log.info("Subscribed {} processors, publishing {} pairs for {}", processors.size(), tickLog.size(), config.getDuration());
+
+		GcSnapshot.resetPeaks();
+		final GcSnapshot gcBefore = GcSnapshot.take();
+		final long start = System.nanoTime();
+		publish(start + config.getDuration().toNanos());
+		drain(System.nanoTime() + config.getDrain().toNanos());
+		final Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+		final GcSnapshot gcAfter = GcSnapshot.take();
+		final OverloadStats overload = throttler.getOverloadStats();
+
+		throttler.cancel();
+
+		return LoadReport.build(config, tickLog, elapsed, processors, stats, overload, gcBefore, gcAfter);
+	}
+
+	private void publish(long deadline) {
+		final int producers = Math.max(1, Math.min(config.getProducers(), tickLog.size()));
+		if (producers == 1) {
+			publish(deadline, 0, 1);
+
+			return;
+		}
+
+		final List<Thread> threads = new ArrayList<>(producers);
+		for (int producer = 0; producer < producers; producer++) {
+			final int first = producer;
+			final Thread thread = new Thread(() -> publish(deadline, first, producers), "load-producer-" + producer);
+			thread.start();
+			threads.add(thread);
+		}
+		for (Thread thread : threads) {
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Publishes the pairs {@code first, first + step, ...}, so the hot pairs are spread over the producers.
+	 */
+	private void publish(long deadline, int first, int step) {
+		final long hotGap = (long) (TimeUnit.SECONDS.toNanos(1L) / config.getHotRate());
+		final long rareGap = config.getRareInterval().toNanos();
+		final long[] nextDue = new long[tickLog.size()];
+		long now = System.nanoTime();
+		for (int pair = first; pair < nextDue.length; pair += step) {
+			nextDue[pair] = now + nextGap(tickLog.isRare(pair) ? rareGap : hotGap);
+		}
+
+		while ((now = System.nanoTime()) < deadline) {
+			long earliest = deadline;
+			for (int pair = first; pair < nextDue.length; pair += step) {
+				if (nextDue[pair] <= now) {
+					final CcyPair ccyPair = tickLog.pair(pair);
+					final long seq = tickLog.publish(pair, System.nanoTime());
+					final ExchangeRatesChangedEvent event = new ExchangeRatesChangedEvent(this, Map.of(ccyPair, (double) seq));
+					// Same order as in the application context, the throttler doesn't depend on it
+					monitor.onApplicationEvent(event);
+					throttler.onApplicationEvent(event);
+					nextDue[pair] = now + nextGap(tickLog.isRare(pair) ? rareGap : hotGap);
+				}
+				earliest = Math.min(earliest, nextDue[pair]);
+			}
+
+			final long sleep = earliest - System.nanoTime();
+			if (sleep > 0) {
+				LockSupport.parkNanos(sleep);
+			}
+		}
+	}
+
+	static void subscribe(LoadConfig config, PriceThrottler throttler, TickLog tickLog, TimeSource timeSource,
+		List<RecordingProcessor> processors, Map<SubscriberClass, ClassStats> stats) {
+		for (SubscriberClass subscriberClass : config.getSubscriberClasses()) {
+			final ClassStats classStats = new ClassStats();
+			stats.put(subscriberClass, classStats);
+			for (int i = 0; i < subscriberClass.count(); i++) {
+				final RecordingProcessor processor = new RecordingProcessor(subscriberClass, classStats, tickLog, timeSource);
+				processors.add(processor);
+				throttler.subscribe(processor, subscriberClass.tier(), subscriberClass.weight());
+			}
+		}
+	}
+
+	/**
+	 * Waits until every subscriber has the last value of every pair or the drain period is over.
+	 */
+	private void drain(long deadline) {
+		while (System.nanoTime() < deadline && !allUpToDate(processors, tickLog)) {
+			LockSupport.parkNanos(DRAIN_POLL_NANOS);
+		}
+	}
+
+	static boolean allUpToDate(List<RecordingProcessor> processors, TickLog tickLog) {
+		for (RecordingProcessor processor : processors) {
+			for (int pair = 0; pair < tickLog.size(); pair++) {
+				if (processor.lastSeq(pair) != tickLog.lastSeq(pair)) {
+					return false;
+				}
+			}
+		}
+
+		return true;
+	}
+
+	static long nextGap(long meanNanos) {
+		return (long) (-Math.log(1.0D - ThreadLocalRandom.current().nextDouble()) * meanNanos);
+	}
+
+	private static List<CcyPair> pairs(int count) {
+		final CurrencyTable table = CurrencyTable.current();
+		final List<CcyPair> pairs = new ArrayList<>(count);
+		for (int base = 0; base < table.size() && pairs.size() < count; base++) {
+			for (int quote = base + 1; quote < table.size() && pairs.size() < count; quote++) {
+				pairs.add(new CcyPair(base, quote));
+			}
+		}
+
+		return pairs;
+	}
+}
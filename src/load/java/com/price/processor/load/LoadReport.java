@@ -0,0 +1,106 @@
+package com.price.processor.load;
+
+import com.price.processor.load.RecordingProcessor.ClassStats;
+import com.price.processor.model.dto.OverloadStats;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Formats the results of a {@link LoadHarness} run.
+ */
+public final class LoadReport {
+	private static final double[] PERCENTILES = {50.0D, 90.0D, 99.0D, 99.9D};
+	private static final long MB = 1024L * 1024L;
+
+	private LoadReport() {
+	}
+
+	public static String build(
+		LoadConfig config,
+		TickLog tickLog,
+		Duration elapsed,
+		List<RecordingProcessor> processors,
+		Map<SubscriberClass, ClassStats> stats,
+		OverloadStats overload,
+		GcSnapshot gcBefore,
+		GcSnapshot gcAfter
+	) {
+		final StringBuilder sb = new StringBuilder();
+		long hotTicks = 0L;
+		long rareTicks = 0L;
+		for (int pair = 0; pair < tickLog.size(); pair++) {
+			if (tickLog.isRare(pair)) {
+				rareTicks += tickLog.lastSeq(pair);
+			} else {
+				hotTicks += tickLog.lastSeq(pair);
+			}
+		}
+
+		final double seconds = elapsed.toNanos() / 1e9D;
+		sb.append(String.format("Run: %s publishing + drain, %d hot pairs at %.1f/s, %d rare pairs every ~%s, %d producers%n",
+			elapsed, config.getHotPairs(), config.getHotRate(), config.getRarePairs(), config.getRareInterval(), config.getProducers()));
+		sb.append(String.format("Published: %d hot ticks, %d rare ticks, %.1f ticks/s%n", hotTicks, rareTicks, (hotTicks + rareTicks) / seconds));
+		sb.append(String.format("Overload at the end: %s (level %d), soft timeout %d ms, conflation interval %d ms, %d hot ticks coalesced%n",
+			overload.state(), overload.level(), overload.softTimeoutMs(), overload.conflationIntervalMs(), overload.coalescedTicks()));
+
+		for (SubscriberClass subscriberClass : config.getSubscriberClasses()) {
+			final ClassStats s = stats.get(subscriberClass);
+			final LatencyHistogram latency = s.getLatency();
+			final List<RecordingProcessor> members = processors.stream()
+				.filter(p -> p.getSubscriberClass() == subscriberClass)
+				.toList();
+
+			long currentPairs = 0L;
+			long upToDate = 0L;
+			for (RecordingProcessor processor : members) {
+				int current = 0;
+				for (int pair = 0; pair < tickLog.size(); pair++) {
+					if (processor.lastSeq(pair) == tickLog.lastSeq(pair)) {
+						current++;
+					}
+				}
+				currentPairs += current;
+				upToDate += current == tickLog.size() ? 1 : 0;
+			}
+			final long expectedRare = rareTicks * members.size();
+
+			sb.append(String.format("%n[%s] %d %s subscribers, weight %d, service time %s%n", subscriberClass.name(), members.size(),
+				subscriberClass.tier(), subscriberClass.weight(), subscriberClass.serviceTime()));
+			sb.append(String.format("  deliveries: %d (%.1f/s), untimed: %d, out of order: %d, cancels: %d%n",
+				s.getDeliveries().sum(), s.getDeliveries().sum() / seconds, s.getUntimedDeliveries().sum(),
+				s.getOutOfOrder().sum(), s.getCancels().sum()));
+			sb.append("  delivery latency:");
+			for (double p : PERCENTILES) {
+				sb.append(String.format(" p%s=%s", p, formatNanos(latency.percentile(p))));
+			}
+			sb.append(String.format(" max=%s%n", formatNanos(latency.max())));
+			sb.append(String.format("  last value: %d/%d subscribers fully up to date, %d/%d (subscriber, pair) slots current%n",
+				upToDate, members.size(), currentPairs, (long) members.size() * tickLog.size()));
+			sb.append(String.format("  rare ticks: %d/%d delivered, %d missed%n",
+				s.getRareDelivered().sum(), expectedRare, expectedRare - s.getRareDelivered().sum()));
+		}
+
+		sb.append(String.format("%nGC:%n"));
+		gcAfter.collectors().forEach((name, after) -> {
+			final long[] before = gcBefore.collectors().getOrDefault(name, new long[]{0L, 0L});
+			sb.append(String.format("  %s: %d collections, %d ms%n", name, after[0] - before[0], after[1] - before[1]));
+		});
+		sb.append(String.format("  heap: used %d MB, committed %d MB, peak %d MB%n",
+			gcAfter.heapUsed() / MB, gcAfter.heapCommitted() / MB, gcAfter.heapPeak() / MB));
+
+		return sb.toString();
+	}
+
+	private static String formatNanos(long nanos) {
+		if (nanos < 10_000L) {
+			return nanos + "ns";
+		} else if (nanos < 10_000_000L) {
+			return nanos / 1_000L + "us";
+		} else if (nanos < 100_000_000_000L) {
+			return nanos / 1_000_000L + "ms";
+		}
+
+		return nanos / 1_000_000_000L + "s";
+	}
+}
@@ -0,0 +1,127 @@
+package com.price.processor.load;
+
+import com.price.processor.service.PriceProcessor;
+import com.price.processor.time.TimeSource;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import lombok.Getter;
+
+/**
+ * Subscriber that spends a service time drawn from its class distribution on every call and records what it
+ * received.
+ * <p>
+ * On a virtual time source the service time is slept in whole milliseconds, shorter ones take no time at all, and a
+ * cancel doesn't cut the sleep short.
+ */
+public class RecordingProcessor implements PriceProcessor {
+	// Below this a service time is burnt on the cpu, parking is way too coarse for microsecond subscribers
+	private static final long SPIN_THRESHOLD_NANOS = 50_000L;
+	private static final long MAX_PARK_NANOS = 10_000_000L;
+
+	@Getter
+	private final SubscriberClass subscriberClass;
+	private final ClassStats stats;
+	private final TickLog tickLog;
+	private final TimeSource timeSource;
+	private final AtomicLongArray lastSeq;
+	private volatile long cancelledAt = Long.MIN_VALUE;
+
+	public RecordingProcessor(SubscriberClass subscriberClass, ClassStats stats, TickLog tickLog, TimeSource timeSource) {
+		this.subscriberClass = subscriberClass;
+		this.stats = stats;
+		this.tickLog = tickLog;
+		this.timeSource = timeSource;
+		this.lastSeq = new AtomicLongArray(tickLog.size());
+	}
+
+	@Override
+	public void onPrice(String ccyPair, double rate) {
+		final long start = timeSource.nanoTime();
+		final Integer pair = tickLog.indexOf(ccyPair);
+		if (pair == null) {
+			stats.getUnknownPairs().increment();
+
+			return;
+		}
+
+		final long seq = (long) rate;
+		final long published = tickLog.publishNanos(pair, seq);
+		if (published >= 0) {
+			stats.getLatency().record(start - published);
+		} else {
+			stats.getUntimedDeliveries().increment();
+		}
+		stats.getDeliveries().increment();
+
+		final long previous = lastSeq.getAndAccumulate(pair, seq, Math::max);
+		if (seq < previous) {
+			stats.getOutOfOrder().increment();
+		} else if (seq > previous && tickLog.isRare(pair)) {
+			stats.getRareDelivered().increment();
+		}
+
+		serve(start, subscriberClass.serviceTime().nextNanos());
+	}
+
+	private void serve(long start, long nanos) {
+		if (timeSource != TimeSource.system()) {
+			try {
+				timeSource.sleep(TimeUnit.NANOSECONDS.toMillis(nanos));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+
+			return;
+		}
+
+		final long deadline = start + nanos;
+		if (nanos < SPIN_THRESHOLD_NANOS) {
+			while (System.nanoTime() < deadline) {
+				Thread.onSpinWait();
+			}
+
+			return;
+		}
+
+		long left;
+		while (cancelledAt < start && (left = deadline - System.nanoTime()) > 0) {
+			LockSupport.parkNanos(this, Math.min(left, MAX_PARK_NANOS));
+		}
+	}
+
+	public long lastSeq(int pair) {
+		return lastSeq.get(pair);
+	}
+
+	@Override
+	public void subscribe(PriceProcessor priceProcessor) {
+	}
+
+	@Override
+	public void unsubscribe(PriceProcessor priceProcessor) {
+	}
+
+	@Override
+	public boolean cancel() {
+		cancelledAt = timeSource.nanoTime();
+		stats.getCancels().increment();
+
+		return true;
+	}
+
+	/**
+	 * Counters shared by all subscribers of the same class.
+	 */
+	@Getter
+	public static class ClassStats {
+		private final LatencyHistogram latency = new LatencyHistogram();
+		private final LongAdder deliveries = new LongAdder();
+		private final LongAdder untimedDeliveries = new LongAdder();
+		private final LongAdder rareDelivered = new LongAdder();
+		private final LongAdder outOfOrder = new LongAdder();
+		private final LongAdder unknownPairs = new LongAdder();
+		private final LongAdder cancels = new LongAdder();
+	}
+}
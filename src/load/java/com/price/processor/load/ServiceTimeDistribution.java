@@ -0,0 +1,46 @@
+package com.price.processor.load;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Service time of a simulated subscriber, parsed from {@code <kind>:<mean>}, e.g. {@code fixed:5us}, {@code exp:100ms},
+ * {@code uniform:2m}.
+ * <ul>
+ *     <li>{@code fixed} - every call takes exactly the mean</li>
+ *     <li>{@code exp} - exponentially distributed with the given mean</li>
+ *     <li>{@code uniform} - uniformly distributed between 0 and 2 * mean</li>
+ * </ul>
+ */
+public record ServiceTimeDistribution(Kind kind, long meanNanos) {
+	public enum Kind {
+		FIXED, EXP, UNIFORM
+	}
+
+	public static ServiceTimeDistribution parse(@NotNull String spec) {
+		final int colon = spec.indexOf(':');
+		if (colon < 0) {
+			throw new IllegalArgumentException(String.format("Invalid service time '%s', expected <kind>:<mean>", spec));
+		}
+
+		final Kind kind = Kind.valueOf(spec.substring(0, colon).trim().toUpperCase());
+
+		return new ServiceTimeDistribution(kind, LoadConfig.parseDuration(spec.substring(colon + 1)).toNanos());
+	}
+
+	public long nextNanos() {
+		final ThreadLocalRandom random = ThreadLocalRandom.current();
+
+		return switch (kind) {
+			case FIXED -> meanNanos;
+			case EXP -> (long) (-Math.log(1.0D - random.nextDouble()) * meanNanos);
+			case UNIFORM -> random.nextLong(2 * meanNanos + 1);
+		};
+	}
+
+	@Override
+	public String toString() {
+		return kind.name().toLowerCase() + ":" + Duration.ofNanos(meanNanos);
+	}
+}
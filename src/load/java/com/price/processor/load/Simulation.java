@@ -0,0 +1,111 @@
+package com.price.processor.load;
+
+import com.price.processor.event.ExchangeRatesChangedEvent;
+import com.price.processor.load.RecordingProcessor.ClassStats;
+import com.price.processor.model.CcyPair;
+import com.price.processor.model.dto.OverloadStats;
+import com.price.processor.service.ExchangeRatesMonitor;
+import com.price.processor.service.PriceThrottler;
+import com.price.processor.time.VirtualTimeSource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Discrete-event version of the {@link LoadHarness}: the same subscribers and ticks on a {@link VirtualTimeSource}, so
+ * hours of traffic take as long as the deliveries themselves, the waits of the slow subscribers are skipped. Run it with
+ * {@code gradle simulate -Dload.duration=8h ...}, see {@link LoadConfig} for the parameters.
+ * <p>
+ * Ticks are timed to the millisecond, sub-millisecond service times take no virtual time. The fast subscribers still
+ * cost real cpu, so the speed-up mostly comes from slow subscribers and rare ticks.
+ */
+@Slf4j
+public class Simulation {
+	private static final long DRAIN_STEP_MS = 100L;
+
+	private final LoadConfig config;
+	private final VirtualTimeSource timeSource = new VirtualTimeSource(System.currentTimeMillis());
+	private final TickLog tickLog;
+	private final ExchangeRatesMonitor monitor;
+	private final PriceThrottler throttler;
+	private final List<RecordingProcessor> processors = new ArrayList<>();
+	private final Map<SubscriberClass, ClassStats> stats = new LinkedHashMap<>();
+	// Read by the driver only
+	private boolean publishing = true;
+
+	public Simulation(LoadConfig config) {
+		this.config = config;
+		this.tickLog = LoadHarness.tickLog(config);
+		this.monitor = LoadHarness.monitor(config, timeSource);
+		this.throttler = LoadHarness.throttler(config, monitor, timeSource);
+	}
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+		final LoadConfig config = LoadConfig.fromProperties(System.getProperties());
+		final String report = new Simulation(config).run();
+		log.info("Simulation report:\n{}", report);
+
+		if (config.getReportFile().getParent() != null) {
+			Files.createDirectories(config.getReportFile().getParent());
+		}
+		Files.writeString(config.getReportFile(), report);
+		log.info("Simulation report has been written to '{}'", config.getReportFile());
+	}
+
+	public String run() throws InterruptedException {
+		LoadHarness.subscribe(config, throttler, tickLog, timeSource, processors, stats);
+		log.info("Subscribed {} processors, simulating {} pairs for {}", processors.size(), tickLog.size(), config.getDuration());
+
+		final GcSnapshot gcBefore = GcSnapshot.take();
+		final long realStart = System.nanoTime();
+		final long start = timeSource.currentTimeMillis();
+		for (int pair = 0; pair < tickLog.size(); pair++) {
+			scheduleTick(pair);
+		}
+
+		timeSource.runUntil(start + config.getDuration().toMillis());
+		publishing = false;
+		final long drainEnd = timeSource.currentTimeMillis() + config.getDrain().toMillis();
+		while (timeSource.currentTimeMillis() < drainEnd && !LoadHarness.allUpToDate(processors, tickLog)) {
+			timeSource.runUntil(Math.min(drainEnd, timeSource.currentTimeMillis() + DRAIN_STEP_MS));
+		}
+
+		final Duration elapsed = Duration.ofMillis(timeSource.currentTimeMillis() - start);
+		final Duration real = Duration.ofNanos(System.nanoTime() - realStart);
+		final GcSnapshot gcAfter = GcSnapshot.take();
+		final OverloadStats overload = throttler.getOverloadStats();
+		throttler.shutdown();
+
+		return String.format("Simulated %s in %s of real time%n", elapsed, real)
+			+ LoadReport.build(config, tickLog, elapsed, processors, stats, overload, gcBefore, gcAfter);
+	}
+
+	private void scheduleTick(int pair) {
+		final long meanNanos = tickLog.isRare(pair)
+			? config.getRareInterval().toNanos()
+			: (long) (TimeUnit.SECONDS.toNanos(1L) / config.getHotRate());
+		final long gapMs = Math.round(LoadHarness.nextGap(meanNanos) / 1e6D);
+		timeSource.schedule(() -> tick(pair), gapMs);
+	}
+
+	// Runs on the driver
+	private void tick(int pair) {
+		if (!publishing) {
+			return;
+		}
+
+		final CcyPair ccyPair = tickLog.pair(pair);
+		final long seq = tickLog.publish(pair, timeSource.nanoTime());
+		final ExchangeRatesChangedEvent event = new ExchangeRatesChangedEvent(this, Map.of(ccyPair, (double) seq));
+		// Same order as in the application context, the throttler doesn't depend on it
+		monitor.onApplicationEvent(event);
+		throttler.onApplicationEvent(event);
+		scheduleTick(pair);
+	}
+}
@@ -0,0 +1,27 @@
+package com.price.processor.load;
+
+import com.price.processor.model.SubscriberTier;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A population of subscribers sharing the same service time distribution and priority, parsed from
+ * {@code <name>:<count>:<kind>:<mean>[:<tier>[:<weight>]]}, e.g. {@code screen:150:fixed:5us:realtime:2}.
+ */
+public record SubscriberClass(String name, int count, ServiceTimeDistribution serviceTime, SubscriberTier tier, int weight) {
+	public static SubscriberClass parse(@NotNull String spec) {
+		final String[] parts = spec.trim().split(":");
+		if (parts.length < 4 || parts.length > 6) {
+			throw new IllegalArgumentException(
+				String.format("Invalid subscriber class '%s', expected <name>:<count>:<kind>:<mean>[:<tier>[:<weight>]]", spec)
+			);
+		}
+
+		return new SubscriberClass(
+			parts[0],
+			Integer.parseInt(parts[1]),
+			ServiceTimeDistribution.parse(parts[2] + ":" + parts[3]),
+			parts.length > 4 ? SubscriberTier.valueOf(parts[4].toUpperCase()) : SubscriberTier.STANDARD,
+			parts.length > 5 ? Integer.parseInt(parts[5]) : 1
+		);
+	}
+}
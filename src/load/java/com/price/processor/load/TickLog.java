@@ -0,0 +1,87 @@
+package com.price.processor.load;
+
+import com.price.processor.model.CcyPair;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * What the harness has published: per pair sequence numbers and publish times.
+ * <p>
+ * The rate of every tick is its sequence number within the pair, so a subscriber can tell exactly which tick it
+ * received and when it was published. Every pair is written by one producer thread only.
+ */
+public class TickLog {
+	private static final int HOT_HISTORY = 1 << 14;
+	private static final int RARE_HISTORY = 1 << 6;
+
+	private final List<CcyPair> pairs;
+	private final String[] names;
+	private final boolean[] rare;
+	private final Map<String, Integer> indexByName = new HashMap<>();
+	private final long[][] publishNanos;
+	private final long[][] publishSeqs;
+	private final AtomicLongArray lastSeq;
+
+	public TickLog(List<CcyPair> pairs, int hotPairs) {
+		this.pairs = pairs;
+		this.names = new String[pairs.size()];
+		this.rare = new boolean[pairs.size()];
+		this.publishNanos = new long[pairs.size()][];
+		this.publishSeqs = new long[pairs.size()][];
+		this.lastSeq = new AtomicLongArray(pairs.size());
+		for (int i = 0; i < pairs.size(); i++) {
+			names[i] = pairs.get(i).toString();
+			rare[i] = i >= hotPairs;
+			indexByName.put(names[i], i);
+			publishNanos[i] = new long[rare[i] ? RARE_HISTORY : HOT_HISTORY];
+			publishSeqs[i] = new long[rare[i] ? RARE_HISTORY : HOT_HISTORY];
+		}
+	}
+
+	/**
+	 * @return sequence number of the published tick
+	 */
+	public long publish(int pair, long nanos) {
+		final long seq = lastSeq.get(pair) + 1;
+		final int slot = (int) (seq & (publishNanos[pair].length - 1));
+		publishNanos[pair][slot] = nanos;
+		publishSeqs[pair][slot] = seq;
+		lastSeq.set(pair, seq);
+
+		return seq;
+	}
+
+	/**
+	 * @return publish time of the tick or {@code -1} if it's not in the history anymore
+	 */
+	public long publishNanos(int pair, long seq) {
+		final int slot = (int) (seq & (publishNanos[pair].length - 1));
+		final long nanos = publishNanos[pair][slot];
+
+		return publishSeqs[pair][slot] == seq ? nanos : -1L;
+	}
+
+	@Nullable
+	public Integer indexOf(String ccyPair) {
+		return indexByName.get(ccyPair);
+	}
+
+	public long lastSeq(int pair) {
+		return lastSeq.get(pair);
+	}
+
+	public boolean isRare(int pair) {
+		return rare[pair];
+	}
+
+	public CcyPair pair(int pair) {
+		return pairs.get(pair);
+	}
+
+	public int size() {
+		return names.length;
+	}
+}
@@ -2,16 +2,19 @@ package com.price.processor;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
-import springfox.documentation.swagger2.annotations.EnableSwagger2;
 
 @SpringBootApplication
 @EnableConfigurationProperties
-@EnableSwagger2
 public class CitiPriceProcessingServiceApplication {
+	// Enough for all startup steps of this application, the buffer is drained once the report is written
+	private static final int STARTUP_STEPS_CAPACITY = 4096;
 
 	public static void main(String[] args) {
-		SpringApplication.run(CitiPriceProcessingServiceApplication.class, args);
+		SpringApplication application = new SpringApplication(CitiPriceProcessingServiceApplication.class);
+		application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEPS_CAPACITY));
+		application.run(args);
 	}
 
 }
@@ -0,0 +1,41 @@
+package com.price.processor.config;
+
+import com.price.processor.model.CurrencyTable;
+import com.price.processor.service.CurrencyUtil;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.PostConstruct;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+
+/**
+ * Installs the currency table the pairs are made of and loads Moneta's currency providers during startup, otherwise
+ * the SPI lookup happens on the first tick.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "com.price.processor.currency")
+@Data
+@Lazy(false)
+public class CurrencyConfig {
+	/**
+	 * 3-letter codes of the currency table, the ISO-4217 currencies known to the JDK if empty.
+	 */
+	private List<String> codes = new ArrayList<>();
+
+	@PostConstruct
+	public void init() {
+		CurrencyTable.install(codes.isEmpty() ? CurrencyTable.iso4217() : new CurrencyTable(codes));
+		CurrencyUtil.preload();
+	}
+
+	/**
+	 * For the beans that make pairs while the context starts, so they are made after the table is installed.
+	 */
+	@Bean
+	public CurrencyTable currencyTable() {
+		return CurrencyTable.current();
+	}
+}
@@ -4,6 +4,7 @@ import java.time.Duration;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
@@ -18,6 +19,11 @@ import org.springframework.validation.annotation.Validated;
 @Data
 @Validated
 public class GeneratorConfig {
+	/**
+	 * Generate the rates, off when they come from an upstream instance, see com.price.processor.relay.upstream.
+	 */
+	private boolean enabled = true;
+
 	@Positive
 	@Max(100)
 	private Double chance;
@@ -25,6 +31,22 @@ public class GeneratorConfig {
 	@NotNull
 	private Duration linger;
 
+	/**
+	 * Synthetic pairs of the currency table currencies generated on top of the template ones, to load the throttler with a
+	 * large universe. Raise com.price.processor.throttler.max-pairs along with it.
+	 */
+	@PositiveOrZero
+	private Integer syntheticPairs = 0;
+
+	/**
+	 * Pairs generated by one fork-join task, smaller universes are generated on the generator thread.
+	 */
+	@Positive
+	private Integer chunkSize = 1024;
+
+	@Positive
+	private Integer parallelism = Runtime.getRuntime().availableProcessors();
+
 	@Value("classpath:exchange_rates_template.json")
 	private Resource resourceFile;
 }
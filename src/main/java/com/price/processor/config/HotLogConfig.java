@@ -0,0 +1,50 @@
+package com.price.processor.config;
+
+import com.price.processor.logging.HotLog;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+
+/**
+ * Settings of the price pipeline logging, see {@link HotLog}.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "com.price.processor.logging")
+@Data
+@Lazy(false)
+public class HotLogConfig {
+	private static final Duration FLUSH_TIMEOUT = Duration.ofSeconds(2L);
+
+	/**
+	 * Format the pipeline log records on a background thread, otherwise they are formatted by the calling thread.
+	 */
+	private boolean async = true;
+
+	/**
+	 * Sampling and rate limit per message site name.
+	 */
+	private Map<String, Site> sites = new HashMap<>();
+
+	@Data
+	public static class Site {
+		private int sampleEvery = 1;
+		private int maxPerSecond = 0;
+	}
+
+	@PostConstruct
+	public void init() {
+		HotLog.get().setAsync(async);
+		sites.forEach((name, site) -> HotLog.get().configureSite(name, site.getSampleEvery(), site.getMaxPerSecond()));
+	}
+
+	@PreDestroy
+	public void destroy() {
+		HotLog.get().flush(FLUSH_TIMEOUT);
+	}
+}
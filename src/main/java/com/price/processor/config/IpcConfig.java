@@ -0,0 +1,31 @@
+package com.price.processor.config;
+
+import com.price.processor.ipc.SharedPriceTableWriter;
+import java.io.IOException;
+import java.nio.file.Path;
+import lombok.Data;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "com.price.processor.ipc")
+@Data
+public class IpcConfig {
+	/**
+	 * Publish the latest rates into a memory-mapped file for the consumers on the same host.
+	 */
+	private boolean enabled = false;
+
+	/**
+	 * Path of the memory-mapped file, better on a tmpfs like /dev/shm.
+	 */
+	private Path path = Path.of("/dev/shm/citi-price-table");
+
+	@Bean(destroyMethod = "close")
+	@ConditionalOnProperty(prefix = "com.price.processor.ipc", name = "enabled", havingValue = "true")
+	public SharedPriceTableWriter sharedPriceTableWriter(PriceThrottlerConfig throttlerConfig) throws IOException {
+		return new SharedPriceTableWriter(path, throttlerConfig.getMaxPairs());
+	}
+}
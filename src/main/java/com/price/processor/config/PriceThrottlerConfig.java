@@ -1,6 +1,9 @@
 package com.price.processor.config;
 
+import com.price.processor.model.SubscriberTier;
 import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
@@ -10,6 +13,50 @@ import org.springframework.context.annotation.Configuration;
 @Data
 public class PriceThrottlerConfig {
 	private Integer maxSubscribers;
+	private Integer maxPairs = 256;
 	private Duration hardTimeout;
 	private Duration softTimeout;
+	// Delivery workers shared by all the subscribers, subscribers mostly block in onPrice, so it's not about the cores
+	private Integer workers = 32;
+	// Extra workers started in place of the ones stuck in a drain longer than the soft timeout
+	private Integer maxOverrunWorkers = 64;
+	private Map<SubscriberTier, Tier> tiers = new EnumMap<>(SubscriberTier.class);
+	private Overload overload = new Overload();
+
+	public Duration latencyObjective(SubscriberTier tier) {
+		final Tier config = tiers.get(tier);
+
+		return config != null && config.getLatencyObjective() != null
+			? config.getLatencyObjective()
+			: tier.getDefaultLatencyObjective();
+	}
+
+	public int maxWorkers(SubscriberTier tier) {
+		final Tier config = tiers.get(tier);
+		final int maxWorkers = config != null && config.getMaxWorkers() != null
+			? config.getMaxWorkers()
+			: workers * tier.getDefaultWorkerPercent() / 100;
+
+		return Math.max(1, Math.min(workers, maxWorkers));
+	}
+
+	@Data
+	public static class Tier {
+		private Duration latencyObjective;
+		private Integer maxWorkers;
+	}
+
+	@Data
+	public static class Overload {
+		private boolean enabled = true;
+		// How often the load is checked and the coalesced ticks are flushed
+		private Duration period = Duration.ofMillis(20L);
+		// Share of the busy workers that counts as overload when subscribers are waiting for a worker
+		private Double utilization = 0.9D;
+		// How long the load has to stay low before the throttler steps back by one level
+		private Duration recovery = Duration.ofSeconds(1L);
+		private Duration minSoftTimeout = Duration.ofMillis(100L);
+		private Duration conflationInterval = Duration.ofMillis(100L);
+		private Duration maxConflationInterval = Duration.ofSeconds(2L);
+	}
 }
@@ -0,0 +1,74 @@
+package com.price.processor.config;
+
+import com.price.processor.model.SubscriberTier;
+import com.price.processor.relay.RelayClient;
+import com.price.processor.relay.RelayServer;
+import com.price.processor.service.PriceThrottler;
+import java.io.IOException;
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Lazy;
+
+@Configuration
+@ConfigurationProperties(prefix = "com.price.processor.relay")
+@Data
+public class RelayConfig {
+	/**
+	 * Accept downstream instances on {@link #port}, every one of them is a single subscriber of this instance.
+	 */
+	private boolean serverEnabled = false;
+
+	private int port = 7070;
+
+	/**
+	 * Priority of the downstream instances among the local subscribers.
+	 */
+	private SubscriberTier tier = SubscriberTier.REALTIME;
+
+	private int weight = 1;
+
+	/**
+	 * 'host:port' of the upstream instance. If set, the rates are received from it instead of the generator, see
+	 * com.price.processor.generator.enabled.
+	 */
+	private String upstream;
+
+	/**
+	 * An idle connection sends a heartbeat this often, a downstream reconnects after 3 missed ones.
+	 */
+	private Duration heartbeat = Duration.ofSeconds(1L);
+
+	/**
+	 * A downstream that doesn't take a batch for this long is disconnected when the throttler cancels the delivery.
+	 */
+	private Duration writeTimeout = Duration.ofSeconds(10L);
+
+	private Duration reconnectDelay = Duration.ofSeconds(1L);
+
+	@Bean(destroyMethod = "close")
+	@Lazy(false)
+	@ConditionalOnProperty(prefix = "com.price.processor.relay", name = "server-enabled", havingValue = "true")
+	public RelayServer relayServer(PriceThrottler throttler) throws IOException {
+		final RelayServer server = new RelayServer(this, throttler);
+		server.start();
+
+		return server;
+	}
+
+	@Bean(destroyMethod = "close")
+	@Lazy(false)
+	@DependsOn("currencyTable")
+	@ConditionalOnProperty(prefix = "com.price.processor.relay", name = "upstream")
+	public RelayClient relayClient(ApplicationEventPublisher eventPublisher) {
+		final RelayClient client = new RelayClient(this, eventPublisher);
+		client.start();
+
+		return client;
+	}
+}
@@ -0,0 +1,27 @@
+package com.price.processor.config;
+
+import java.nio.file.Path;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "com.price.processor.startup")
+@Data
+public class StartupConfig {
+	/**
+	 * Where to write the startup phase timing report, nothing is written if not set.
+	 */
+	private Path reportFile;
+
+	/**
+	 * How many of the slowest startup steps are listed in the report.
+	 */
+	private Integer topSteps = 25;
+
+	/**
+	 * Shut the application down right after the report is written. Used by the {@code startupReport} and
+	 * {@code appCds} gradle tasks.
+	 */
+	private boolean exitAfterReport = false;
+}
@@ -1,25 +1,30 @@
 package com.price.processor.config;
 
-import java.util.ArrayList;
 import java.util.Collections;
-import java.util.List;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import springfox.documentation.builders.PathSelectors;
 import springfox.documentation.builders.RequestHandlerSelectors;
-import springfox.documentation.service.BasicAuth;
-import springfox.documentation.service.SecurityScheme;
 import springfox.documentation.spi.DocumentationType;
 import springfox.documentation.spring.web.plugins.Docket;
+import springfox.documentation.swagger2.annotations.EnableSwagger2;
 
+/**
+ * Swagger docket. Can be switched off with {@code com.price.processor.swagger.enabled=false}, in which case springfox
+ * is not bootstrapped at all (see the {@code fast} profile).
+ */
 @Configuration
+@EnableSwagger2
+@ConditionalOnProperty(prefix = "com.price.processor.swagger", name = "enabled", havingValue = "true", matchIfMissing = true)
 public class SwaggerConfig {
 	@Bean
 	public Docket productAPI() {
 		return new Docket(DocumentationType.SWAGGER_2)
 			.securitySchemes(Collections.emptyList())
 			.select()
-			.apis(RequestHandlerSelectors.any())
+			// Only our own controllers, scanning every handler (incl. boot's error controller) is slow and useless
+			.apis(RequestHandlerSelectors.basePackage("com.price.processor.controller"))
 			.paths(PathSelectors.any())
 			.build()
 			.useDefaultResponseMessages(false);
@@ -0,0 +1,16 @@
+package com.price.processor.config;
+
+import com.price.processor.time.TimeSource;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class TimeConfig {
+	/**
+	 * Wall clock time, replace it with a {@link com.price.processor.time.VirtualTimeSource} to simulate.
+	 */
+	@Bean
+	public TimeSource timeSource() {
+		return TimeSource.system();
+	}
+}
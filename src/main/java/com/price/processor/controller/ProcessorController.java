@@ -1,12 +1,17 @@
 package com.price.processor.controller;
 
+import com.price.processor.model.SubscriberTier;
+import com.price.processor.model.dto.OverloadStats;
+import com.price.processor.model.dto.TierStats;
 import com.price.processor.service.DummyPriceProcessor;
 import com.price.processor.service.PriceProcessor;
 import com.price.processor.service.PriceThrottler;
+import java.util.Map;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -20,11 +25,15 @@ public class ProcessorController {
 	private final PriceThrottler throttler;
 
 	@PutMapping("subscribe")
-	public String subscribeProcessor(@RequestParam Long operationTimeMs) {
+	public String subscribeProcessor(
+		@RequestParam Long operationTimeMs,
+		@RequestParam(defaultValue = "STANDARD") SubscriberTier tier,
+		@RequestParam(defaultValue = "1") Integer weight
+	) {
 		log.info("Subscribing processor with operationTimeMs {}", operationTimeMs);
 		PriceProcessor processor = new DummyPriceProcessor(operationTimeMs);
 
-		throttler.subscribe(processor);
+		throttler.subscribe(processor, tier, weight);
 		return throttler.getProcessorUUID(processor).toString();
 	}
 
@@ -34,4 +43,14 @@ public class ProcessorController {
 		PriceProcessor processor = throttler.getProcessor(UUID.fromString(uuid));
 		throttler.unsubscribe(processor);
 	}
+
+	@GetMapping("tiers")
+	public Map<SubscriberTier, TierStats> getTierStats() {
+		return throttler.getTierStats();
+	}
+
+	@GetMapping("overload")
+	public OverloadStats getOverloadStats() {
+		return throttler.getOverloadStats();
+	}
 }
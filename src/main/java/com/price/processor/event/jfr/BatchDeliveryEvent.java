@@ -0,0 +1,27 @@
+package com.price.processor.event.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The event duration is the time spent in {@link com.price.processor.service.BatchPriceProcessor#onPrices}.
+ */
+@Name("com.price.processor.BatchDelivery")
+@Label("Batch Delivery")
+@Description("Pending updates of a batch subscriber have been delivered in one call")
+@Category({"Price Processor", "Throttler"})
+@StackTrace(false)
+public class BatchDeliveryEvent extends Event {
+	@Label("Subscriber Index")
+	int subscriberIndex;
+
+	@Label("Pairs")
+	int pairs;
+
+	@Label("Success")
+	boolean success;
+}
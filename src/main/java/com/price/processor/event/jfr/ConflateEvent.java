@@ -0,0 +1,15 @@
+package com.price.processor.event.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name("com.price.processor.Conflate")
+@Label("Conflate")
+@Description("A tick has been superseded because a delivery of the same pair is in flight and is within the soft timeout")
+public class ConflateEvent extends ThrottlerEvent {
+	@Label("In Flight")
+	@Timespan(Timespan.MILLISECONDS)
+	long inFlight;
+}
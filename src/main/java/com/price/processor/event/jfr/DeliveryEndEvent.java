@@ -0,0 +1,16 @@
+package com.price.processor.event.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The event duration is the time spent in the subscriber.
+ */
+@Name("com.price.processor.DeliveryEnd")
+@Label("Delivery End")
+@Description("The subscriber call has returned")
+public class DeliveryEndEvent extends ThrottlerEvent {
+	@Label("Success")
+	boolean success;
+}
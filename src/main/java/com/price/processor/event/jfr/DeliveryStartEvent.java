@@ -0,0 +1,16 @@
+package com.price.processor.event.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name("com.price.processor.DeliveryStart")
+@Label("Delivery Start")
+@Description("A worker has started calling the subscriber")
+public class DeliveryStartEvent extends ThrottlerEvent {
+	@Label("Queue Delay")
+	@Description("Time between the task submission and the start of the call")
+	@Timespan(Timespan.MILLISECONDS)
+	long queueDelay;
+}
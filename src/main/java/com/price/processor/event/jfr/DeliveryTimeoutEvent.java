@@ -0,0 +1,15 @@
+package com.price.processor.event.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name("com.price.processor.DeliveryTimeout")
+@Label("Delivery Timeout")
+@Description("A delivery has exceeded the hard timeout and has been cancelled")
+public class DeliveryTimeoutEvent extends ThrottlerEvent {
+	@Label("In Flight")
+	@Timespan(Timespan.MILLISECONDS)
+	long inFlight;
+}
@@ -0,0 +1,15 @@
+package com.price.processor.event.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name("com.price.processor.RarePreempt")
+@Label("Rare Preempt")
+@Description("A rare tick has cancelled the in-flight delivery of the same pair")
+public class RarePreemptEvent extends ThrottlerEvent {
+	@Label("Preempted In Flight")
+	@Timespan(Timespan.MILLISECONDS)
+	long inFlight;
+}
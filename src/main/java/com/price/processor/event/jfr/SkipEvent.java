@@ -0,0 +1,15 @@
+package com.price.processor.event.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name("com.price.processor.Skip")
+@Label("Skip")
+@Description("A non-rare tick has been skipped because the delivery of the same pair exceeded the soft timeout")
+public class SkipEvent extends ThrottlerEvent {
+	@Label("In Flight")
+	@Timespan(Timespan.MILLISECONDS)
+	long inFlight;
+}
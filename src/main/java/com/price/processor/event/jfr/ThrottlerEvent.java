@@ -0,0 +1,28 @@
+package com.price.processor.event.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Base of the JFR events emitted by {@link com.price.processor.service.PriceThrottler}.
+ * <p>
+ * Stack traces are off, so an enabled event costs a timestamp and a few field writes, and a disabled one is
+ * practically free.
+ */
+@Category({"Price Processor", "Throttler"})
+@StackTrace(false)
+public abstract class ThrottlerEvent extends Event {
+	@Label("Pair")
+	String pair;
+
+	@Label("Pair Code")
+	@Description("Packed currency codes of the pair, see CcyPair.code()")
+	int pairCode;
+
+	@Label("Subscriber Index")
+	@Description("Index assigned to the subscriber on subscribe, -1 for the events that are not bound to a subscriber")
+	int subscriberIndex;
+}
@@ -0,0 +1,114 @@
+package com.price.processor.event.jfr;
+
+import com.price.processor.model.CcyPair;
+
+/**
+ * Emitters for the throttler JFR events. Every method checks {@link jdk.jfr.Event#shouldCommit()} first, so nothing
+ * is computed when the recording is off.
+ */
+public final class ThrottlerEvents {
+	public static final int NO_SUBSCRIBER = -1;
+
+	private ThrottlerEvents() {
+	}
+
+	public static void tickIngest(CcyPair pair, String ccyPair, double rate, int subscribers) {
+		final TickIngestEvent event = new TickIngestEvent();
+		if (event.shouldCommit()) {
+			fill(event, pair, ccyPair, NO_SUBSCRIBER);
+			event.rate = rate;
+			event.subscribers = subscribers;
+			event.commit();
+		}
+	}
+
+	public static void conflate(CcyPair pair, String ccyPair, int subscriberIndex, long inFlightMs) {
+		final ConflateEvent event = new ConflateEvent();
+		if (event.shouldCommit()) {
+			fill(event, pair, ccyPair, subscriberIndex);
+			event.inFlight = inFlightMs;
+			event.commit();
+		}
+	}
+
+	public static void skip(CcyPair pair, String ccyPair, int subscriberIndex, long inFlightMs) {
+		final SkipEvent event = new SkipEvent();
+		if (event.shouldCommit()) {
+			fill(event, pair, ccyPair, subscriberIndex);
+			event.inFlight = inFlightMs;
+			event.commit();
+		}
+	}
+
+	public static void rarePreempt(CcyPair pair, String ccyPair, int subscriberIndex, long inFlightMs) {
+		final RarePreemptEvent event = new RarePreemptEvent();
+		if (event.shouldCommit()) {
+			fill(event, pair, ccyPair, subscriberIndex);
+			event.inFlight = inFlightMs;
+			event.commit();
+		}
+	}
+
+	public static void deliveryStart(CcyPair pair, String ccyPair, int subscriberIndex, long queueDelayMs) {
+		final DeliveryStartEvent event = new DeliveryStartEvent();
+		if (event.shouldCommit()) {
+			fill(event, pair, ccyPair, subscriberIndex);
+			event.queueDelay = queueDelayMs;
+			event.commit();
+		}
+	}
+
+	/**
+	 * Starts timing a delivery, pass the result to {@link #deliveryEnd(DeliveryEndEvent, CcyPair, String, int, boolean)}.
+	 */
+	public static DeliveryEndEvent beginDelivery() {
+		final DeliveryEndEvent event = new DeliveryEndEvent();
+		event.begin();
+
+		return event;
+	}
+
+	public static void deliveryEnd(DeliveryEndEvent event, CcyPair pair, String ccyPair, int subscriberIndex, boolean success) {
+		event.end();
+		if (event.shouldCommit()) {
+			fill(event, pair, ccyPair, subscriberIndex);
+			event.success = success;
+			event.commit();
+		}
+	}
+
+	/**
+	 * Starts timing a batch delivery, pass the result to {@link #batchEnd(BatchDeliveryEvent, int, int, boolean)}.
+	 */
+	public static BatchDeliveryEvent beginBatch() {
+		final BatchDeliveryEvent event = new BatchDeliveryEvent();
+		event.begin();
+
+		return event;
+	}
+
+	public static void batchEnd(BatchDeliveryEvent event, int subscriberIndex, int pairs, boolean success) {
+		event.end();
+		if (event.shouldCommit()) {
+			event.subscriberIndex = subscriberIndex;
+			event.pairs = pairs;
+			event.success = success;
+			event.commit();
+		}
+	}
+
+	public static void deliveryTimeout(CcyPair pair, String ccyPair, int subscriberIndex, long inFlightMs) {
+		final DeliveryTimeoutEvent event = new DeliveryTimeoutEvent();
+		if (event.shouldCommit()) {
+			fill(event, pair, ccyPair, subscriberIndex);
+			event.inFlight = inFlightMs;
+			event.commit();
+		}
+	}
+
+	private static void fill(ThrottlerEvent event, CcyPair pair, String ccyPair, int subscriberIndex) {
+		event.pair = ccyPair;
+		event.pairCode = pair.code();
+		event.subscriberIndex = subscriberIndex;
+	}
+}
@@ -0,0 +1,16 @@
+package com.price.processor.event.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.price.processor.TickIngest")
+@Label("Tick Ingest")
+@Description("A tick has been received by the throttler")
+public class TickIngestEvent extends ThrottlerEvent {
+	@Label("Rate")
+	double rate;
+
+	@Label("Subscribers")
+	int subscribers;
+}
@@ -0,0 +1,43 @@
+package com.price.processor.ipc;
+
+/**
+ * Reusable holder of a consistent read of a {@link SharedPriceTableReader} slot, nothing is allocated per read.
+ */
+public final class PriceSnapshot {
+	int pairCode;
+	double rate;
+	long timestampMillis;
+	long version;
+	long sequence;
+
+	public int getPairCode() {
+		return pairCode;
+	}
+
+	public String getPairName() {
+		return SharedPriceTableLayout.pairName(pairCode);
+	}
+
+	public double getRate() {
+		return rate;
+	}
+
+	public long getTimestampMillis() {
+		return timestampMillis;
+	}
+
+	/**
+	 * @return version of the rate, incremented by every update of the pair
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * @return seqlock sequence of the slot at the time of the read, pass it to
+	 * {@link SharedPriceTableReader#hasChanged(int, long)}
+	 */
+	public long getSequence() {
+		return sequence;
+	}
+}
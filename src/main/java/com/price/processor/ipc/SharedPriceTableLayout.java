@@ -0,0 +1,98 @@
+package com.price.processor.ipc;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * Layout of the memory-mapped latest price table, shared by {@link SharedPriceTableWriter} and
+ * {@link SharedPriceTableReader}. Native byte order, the file is meant for processes on the same host only.
+ * <pre>
+ * header, 64 bytes:
+ *   0  int   magic 'CPPT'
+ *   4  int   layout version
+ *   8  int   slot count
+ *   12 int   slot size
+ *   16 long  writer pid
+ *   24 long  writer epoch, start time of the writer in epoch millis, changes when the writer restarts
+ *   32 long  number of used slots
+ * slot i at 64 + i * 64, one cache line each:
+ *   0  long  seqlock sequence, odd while the slot is being written
+ *   8  int   pair code, both packed 3-letter codes (5 bits per letter)
+ *   16 long  rate, raw double bits
+ *   24 long  tick timestamp, epoch millis
+ *   32 long  version of the rate, incremented on every update of the pair
+ * </pre>
+ * This class has no dependencies besides the JDK, so the reader side can be shipped as a standalone jar.
+ */
+public final class SharedPriceTableLayout {
+	public static final int MAGIC = 0x43505054;
+	public static final int VERSION = 1;
+
+	public static final int HEADER_SIZE = 64;
+	public static final int SLOT_SIZE = 64;
+
+	static final int MAGIC_OFFSET = 0;
+	static final int VERSION_OFFSET = 4;
+	static final int SLOT_COUNT_OFFSET = 8;
+	static final int SLOT_SIZE_OFFSET = 12;
+	static final int PID_OFFSET = 16;
+	static final int EPOCH_OFFSET = 24;
+	static final int USED_SLOTS_OFFSET = 32;
+
+	static final int SEQ_OFFSET = 0;
+	static final int PAIR_CODE_OFFSET = 8;
+	static final int RATE_OFFSET = 16;
+	static final int TIMESTAMP_OFFSET = 24;
+	static final int RATE_VERSION_OFFSET = 32;
+
+	static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+	private static final int LETTERS = 3;
+	private static final int BITS_PER_LETTER = 5;
+
+	private SharedPriceTableLayout() {
+	}
+
+	public static long fileSize(int slotCount) {
+		return HEADER_SIZE + (long) slotCount * SLOT_SIZE;
+	}
+
+	static int slotOffset(int slot) {
+		return HEADER_SIZE + slot * SLOT_SIZE;
+	}
+
+	/**
+	 * @return pair name like 'EURUSD' for the pair code stored in a slot
+	 */
+	public static String pairName(int pairCode) {
+		final char[] chars = new char[LETTERS * 2];
+		int code = pairCode;
+		for (int i = chars.length - 1; i >= 0; i--) {
+			chars[i] = (char) ('A' + (code & ((1 << BITS_PER_LETTER) - 1)));
+			code >>>= BITS_PER_LETTER;
+		}
+
+		return new String(chars);
+	}
+
+	/**
+	 * @return pair code for a pair name like 'EURUSD' or {@code -1} if it's not 6 upper case latin letters
+	 */
+	public static int pairCode(CharSequence pairName) {
+		if (pairName.length() != LETTERS * 2) {
+			return -1;
+		}
+
+		int code = 0;
+		for (int i = 0; i < pairName.length(); i++) {
+			final int letter = pairName.charAt(i) - 'A';
+			if (letter < 0 || letter > 'Z' - 'A') {
+				return -1;
+			}
+			code = (code << BITS_PER_LETTER) | letter;
+		}
+
+		return code;
+	}
+}
@@ -0,0 +1,210 @@
+package com.price.processor.ipc;
+
+import static com.price.processor.ipc.SharedPriceTableLayout.EPOCH_OFFSET;
+import static com.price.processor.ipc.SharedPriceTableLayout.LONGS;
+import static com.price.processor.ipc.SharedPriceTableLayout.MAGIC;
+import static com.price.processor.ipc.SharedPriceTableLayout.MAGIC_OFFSET;
+import static com.price.processor.ipc.SharedPriceTableLayout.PAIR_CODE_OFFSET;
+import static com.price.processor.ipc.SharedPriceTableLayout.PID_OFFSET;
+import static com.price.processor.ipc.SharedPriceTableLayout.RATE_OFFSET;
+import static com.price.processor.ipc.SharedPriceTableLayout.RATE_VERSION_OFFSET;
+import static com.price.processor.ipc.SharedPriceTableLayout.SLOT_COUNT_OFFSET;
+import static com.price.processor.ipc.SharedPriceTableLayout.SLOT_SIZE;
+import static com.price.processor.ipc.SharedPriceTableLayout.SLOT_SIZE_OFFSET;
+import static com.price.processor.ipc.SharedPriceTableLayout.TIMESTAMP_OFFSET;
+import static com.price.processor.ipc.SharedPriceTableLayout.USED_SLOTS_OFFSET;
+import static com.price.processor.ipc.SharedPriceTableLayout.VERSION;
+import static com.price.processor.ipc.SharedPriceTableLayout.VERSION_OFFSET;
+import static com.price.processor.ipc.SharedPriceTableLayout.slotOffset;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Reader of the latest price table published by the throttler, for processes on the same host. Depends on the JDK
+ * only and is shipped as a standalone jar by the {@code ipcReaderJar} gradle task.
+ * <p>
+ * Typical usage:
+ * <pre>
+ * try (SharedPriceTableReader reader = SharedPriceTableReader.open(Path.of("/dev/shm/citi-price-table"))) {
+ *     final PriceSnapshot price = new PriceSnapshot();
+ *     final int slot = reader.findSlot("EURUSD");
+ *     long seq = -1;
+ *     while (running) {
+ *         if (reader.awaitChange(slot, seq, 50_000L, 1_000_000_000L, price)) {
+ *             seq = price.getSequence();
+ *             ... price.getRate() ...
+ *         }
+ *     }
+ * }
+ * </pre>
+ * Instances are thread safe, {@link PriceSnapshot} holders are not.
+ */
+public final class SharedPriceTableReader implements Closeable {
+	private static final long PARK_NANOS = 50_000L;
+	// A write takes nanoseconds, a slot odd for longer than this is left by a writer that died in the middle of it
+	private static final long STALLED_WRITE_NANOS = 10_000_000L;
+
+	private final FileChannel channel;
+	private final MappedByteBuffer buffer;
+	private final int slotCount;
+
+	private SharedPriceTableReader(FileChannel channel, MappedByteBuffer buffer, int slotCount) {
+		this.channel = channel;
+		this.buffer = buffer;
+		this.slotCount = slotCount;
+	}
+
+	/**
+	 * @throws IOException if the file can't be mapped or it's not a price table of a supported version
+	 */
+	public static SharedPriceTableReader open(Path path) throws IOException {
+		final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			final MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+			buffer.order(ByteOrder.nativeOrder());
+			if (buffer.capacity() < SharedPriceTableLayout.HEADER_SIZE
+				|| buffer.getInt(MAGIC_OFFSET) != MAGIC
+				|| buffer.getInt(VERSION_OFFSET) != VERSION
+				|| buffer.getInt(SLOT_SIZE_OFFSET) != SLOT_SIZE) {
+				throw new IOException(String.format("'%s' is not a price table of version %d", path, VERSION));
+			}
+
+			final int slotCount = buffer.getInt(SLOT_COUNT_OFFSET);
+			if (buffer.capacity() < SharedPriceTableLayout.fileSize(slotCount)) {
+				throw new IOException(String.format("'%s' is truncated", path));
+			}
+
+			return new SharedPriceTableReader(channel, buffer, slotCount);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+
+			throw e;
+		}
+	}
+
+	public int slotCount() {
+		return slotCount;
+	}
+
+	/**
+	 * @return number of slots the writer has published into, slots {@code 0..usedSlots-1}
+	 */
+	public int usedSlots() {
+		return (int) Math.min(slotCount, (long) LONGS.getAcquire(buffer, USED_SLOTS_OFFSET));
+	}
+
+	public long writerPid() {
+		return (long) LONGS.getAcquire(buffer, PID_OFFSET);
+	}
+
+	/**
+	 * @return start time of the writer, a change means the writer has restarted and slots may have been reassigned
+	 */
+	public long writerEpoch() {
+		return (long) LONGS.getAcquire(buffer, EPOCH_OFFSET);
+	}
+
+	/**
+	 * @return slot of the pair or {@code -1} if it hasn't been published yet
+	 */
+	public int findSlot(String pairName) {
+		return findSlot(SharedPriceTableLayout.pairCode(pairName));
+	}
+
+	public int findSlot(int pairCode) {
+		if (pairCode < 0) {
+			return -1;
+		}
+
+		final int used = usedSlots();
+		for (int slot = 0; slot < used; slot++) {
+			final int offset = slotOffset(slot);
+			if ((long) LONGS.getAcquire(buffer, offset) != 0L && buffer.getInt(offset + PAIR_CODE_OFFSET) == pairCode) {
+				return slot;
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 * @return current seqlock sequence of the slot, a single volatile read
+	 */
+	public long sequence(int slot) {
+		return (long) LONGS.getAcquire(buffer, slotOffset(slot));
+	}
+
+	public boolean hasChanged(int slot, long sequence) {
+		return sequence(slot) != sequence;
+	}
+
+	/**
+	 * Copies a consistent state of the slot into the holder, retries while the writer is in the middle of an update.
+	 *
+	 * @return {@code false} if nothing has been published into the slot yet or the writer has been in the middle of an
+	 * update for too long, e.g. it has died there; the holder is left as is then
+	 */
+	public boolean read(int slot, PriceSnapshot into) {
+		final int offset = slotOffset(slot);
+		long seq;
+		do {
+			seq = (long) LONGS.getAcquire(buffer, offset);
+			if ((seq & 1L) != 0) {
+				final long start = System.nanoTime();
+				do {
+					if (System.nanoTime() - start > STALLED_WRITE_NANOS) {
+						return false;
+					}
+					Thread.onSpinWait();
+					seq = (long) LONGS.getAcquire(buffer, offset);
+				} while ((seq & 1L) != 0);
+			}
+			into.pairCode = buffer.getInt(offset + PAIR_CODE_OFFSET);
+			into.rate = Double.longBitsToDouble((long) LONGS.get(buffer, offset + RATE_OFFSET));
+			into.timestampMillis = (long) LONGS.get(buffer, offset + TIMESTAMP_OFFSET);
+			into.version = (long) LONGS.get(buffer, offset + RATE_VERSION_OFFSET);
+			VarHandle.acquireFence();
+		} while ((long) LONGS.getAcquire(buffer, offset) != seq);
+		into.sequence = seq;
+
+		return into.version > 0;
+	}
+
+	/**
+	 * Busy spins for {@code spinNanos}, then parks in short steps until the slot sequence differs from the given one
+	 * or the timeout expires.
+	 *
+	 * @return {@code true} if the slot has changed and the holder contains the new state
+	 */
+	public boolean awaitChange(int slot, long sequence, long spinNanos, long timeoutNanos, PriceSnapshot into) {
+		final long start = System.nanoTime();
+		long now = start;
+		while (!hasChanged(slot, sequence)) {
+			if (now - start >= timeoutNanos) {
+				return false;
+			}
+			if (now - start < spinNanos) {
+				Thread.onSpinWait();
+			} else {
+				LockSupport.parkNanos(PARK_NANOS);
+			}
+			now = System.nanoTime();
+		}
+
+		return read(slot, into) && into.sequence != sequence;
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
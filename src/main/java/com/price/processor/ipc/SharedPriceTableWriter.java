@@ -0,0 +1,142 @@
+package com.price.processor.ipc;
+
+import static com.price.processor.ipc.SharedPriceTableLayout.EPOCH_OFFSET;
+import static com.price.processor.ipc.SharedPriceTableLayout.HEADER_SIZE;
+import static com.price.processor.ipc.SharedPriceTableLayout.LONGS;
+import static com.price.processor.ipc.SharedPriceTableLayout.MAGIC;
+import static com.price.processor.ipc.SharedPriceTableLayout.MAGIC_OFFSET;
+import static com.price.processor.ipc.SharedPriceTableLayout.PAIR_CODE_OFFSET;
+import static com.price.processor.ipc.SharedPriceTableLayout.PID_OFFSET;
+import static com.price.processor.ipc.SharedPriceTableLayout.RATE_OFFSET;
+import static com.price.processor.ipc.SharedPriceTableLayout.RATE_VERSION_OFFSET;
+import static com.price.processor.ipc.SharedPriceTableLayout.SLOT_COUNT_OFFSET;
+import static com.price.processor.ipc.SharedPriceTableLayout.SLOT_SIZE;
+import static com.price.processor.ipc.SharedPriceTableLayout.SLOT_SIZE_OFFSET;
+import static com.price.processor.ipc.SharedPriceTableLayout.TIMESTAMP_OFFSET;
+import static com.price.processor.ipc.SharedPriceTableLayout.USED_SLOTS_OFFSET;
+import static com.price.processor.ipc.SharedPriceTableLayout.VERSION;
+import static com.price.processor.ipc.SharedPriceTableLayout.VERSION_OFFSET;
+import static com.price.processor.ipc.SharedPriceTableLayout.slotOffset;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Publishes the latest rates into a memory-mapped file, see {@link SharedPriceTableLayout}.
+ * <p>
+ * Every slot is a seqlock: the writer makes the sequence odd, writes the fields and makes it even again. Concurrent
+ * writers of the same slot are serialized by the CAS on the sequence, readers never block the writer.
+ * <p>
+ * The file is reused, not recreated, on restart, so readers that have it mapped keep seeing updates. Slot sequences
+ * keep growing across restarts and the header epoch changes. The file is never shrunk: truncating a file that another
+ * process has mapped makes its reads fault. When the slot count goes down, the slots beyond it are just cleared.
+ * <p>
+ * A previous writer killed in the middle of a publish leaves its slot sequence odd. There's a single writer per file,
+ * so the new one takes such slots over without waiting for them.
+ */
+@Slf4j
+public final class SharedPriceTableWriter implements Closeable {
+	private final FileChannel channel;
+	private final MappedByteBuffer buffer;
+	@Getter
+	private final Path path;
+	@Getter
+	private final int slotCount;
+
+	public SharedPriceTableWriter(Path path, int slotCount) throws IOException {
+		this.path = path;
+		this.slotCount = slotCount;
+		if (path.getParent() != null) {
+			Files.createDirectories(path.getParent());
+		}
+
+		channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		final long size = Math.max(channel.size(), SharedPriceTableLayout.fileSize(slotCount));
+		buffer = channel.map(MapMode.READ_WRITE, 0, size);
+		buffer.order(ByteOrder.nativeOrder());
+
+		// Including the slots of a previous, larger table, the readers that have it mapped see them empty
+		final long mappedSlots = (size - HEADER_SIZE) / SLOT_SIZE;
+		for (int slot = 0; slot < mappedSlots; slot++) {
+			final int offset = slotOffset(slot);
+			// Odd whether or not the previous writer has left it odd, so readers retry while the slot is cleared
+			final long odd = (long) LONGS.getVolatile(buffer, offset) | 1L;
+			LONGS.setVolatile(buffer, offset, odd);
+			VarHandle.storeStoreFence();
+			for (int field = PAIR_CODE_OFFSET; field < SLOT_SIZE; field += Long.BYTES) {
+				LONGS.set(buffer, offset + field, 0L);
+			}
+			LONGS.setRelease(buffer, offset, odd + 1);
+		}
+
+		buffer.putInt(MAGIC_OFFSET, MAGIC);
+		buffer.putInt(VERSION_OFFSET, VERSION);
+		buffer.putInt(SLOT_COUNT_OFFSET, slotCount);
+		buffer.putInt(SLOT_SIZE_OFFSET, SLOT_SIZE);
+		LONGS.set(buffer, PID_OFFSET, ProcessHandle.current().pid());
+		LONGS.setRelease(buffer, USED_SLOTS_OFFSET, 0L);
+		LONGS.setRelease(buffer, EPOCH_OFFSET, System.currentTimeMillis());
+
+		log.info("Shared price table of {} slots ({} bytes) is mapped at '{}'", slotCount, HEADER_SIZE + (long) slotCount * SLOT_SIZE, path);
+	}
+
+	/**
+	 * Writes a slot, slots beyond the slot count are ignored. Producers of the same pair may get here out of order, a
+	 * version that isn't newer than the stored one is dropped.
+	 */
+	public void publish(int slot, int pairCode, double rate, long timestampMillis, long version) {
+		if (slot < 0 || slot >= slotCount) {
+			return;
+		}
+
+		final int offset = slotOffset(slot);
+		final long seq = lock(offset);
+		if (buffer.getInt(offset + PAIR_CODE_OFFSET) == pairCode && (long) LONGS.get(buffer, offset + RATE_VERSION_OFFSET) >= version) {
+			// Nothing has changed, the readers may keep what they've read
+			LONGS.setRelease(buffer, offset, seq);
+
+			return;
+		}
+		buffer.putInt(offset + PAIR_CODE_OFFSET, pairCode);
+		LONGS.set(buffer, offset + RATE_OFFSET, Double.doubleToRawLongBits(rate));
+		LONGS.set(buffer, offset + TIMESTAMP_OFFSET, timestampMillis);
+		LONGS.set(buffer, offset + RATE_VERSION_OFFSET, version);
+		LONGS.setRelease(buffer, offset, seq + 2);
+
+		long used;
+		while ((used = (long) LONGS.getAcquire(buffer, USED_SLOTS_OFFSET)) <= slot) {
+			if (LONGS.compareAndSet(buffer, USED_SLOTS_OFFSET, used, (long) slot + 1)) {
+				break;
+			}
+		}
+	}
+
+	private long lock(int offset) {
+		while (true) {
+			final long seq = (long) LONGS.getVolatile(buffer, offset);
+			if ((seq & 1L) == 0 && LONGS.compareAndSet(buffer, offset, seq, seq + 1)) {
+				// The field stores must not become visible before the odd sequence
+				VarHandle.storeStoreFence();
+
+				return seq;
+			}
+			Thread.onSpinWait();
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		buffer.force();
+		channel.close();
+	}
+}
@@ -0,0 +1,219 @@
+package com.price.processor.logging;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.event.Level;
+
+/**
+ * Asynchronous garbage-free logging path for the price pipeline.
+ * <p>
+ * Producers claim a preallocated {@link HotLogRecord} in a bounded multi-producer ring, copy primitive arguments into
+ * it and publish it. A single background thread formats published records in order and hands them to slf4j. Nothing
+ * is allocated on the producer side, no appender lock is taken and a full ring drops records instead of blocking.
+ * <p>
+ * Every slot carries a sequence (as in Vyukov's bounded queue), so a slot is claimed only once the formatter has freed
+ * it after its previous owner published it, and two producers never share a record.
+ * <p>
+ * In the synchronous mode (see {@code com.price.processor.logging.async}) records are formatted right away on the
+ * calling thread, which is handy when the log order relative to other loggers matters.
+ */
+@Slf4j
+public final class HotLog {
+	private static final int DEFAULT_CAPACITY = 1 << 13;
+	private static final long FLUSH_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1L);
+	private static final long DROPPED_REPORT_MS = 1000L;
+
+	private static final HotLog INSTANCE = new HotLog(DEFAULT_CAPACITY);
+
+	private final HotLogRecord[] ring;
+	private final int mask;
+	private final AtomicLong tail = new AtomicLong();
+	private final AtomicLong head = new AtomicLong();
+	private final LongAdder dropped = new LongAdder();
+	private final Map<String, HotLogSite> sites = new ConcurrentHashMap<>();
+	private final Map<String, int[]> siteSettings = new ConcurrentHashMap<>();
+	private final ThreadLocal<HotLogRecord> syncRecord;
+	private final Thread formatter;
+	private volatile boolean async = true;
+	// Set by the formatter before it parks, a publish seeing it unparks the formatter
+	private volatile boolean sleeping;
+
+	HotLog(int capacity) {
+		if (Integer.bitCount(capacity) != 1) {
+			throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+		}
+
+		ring = new HotLogRecord[capacity];
+		for (int i = 0; i < capacity; i++) {
+			ring[i] = new HotLogRecord(this, i);
+		}
+		mask = capacity - 1;
+		syncRecord = ThreadLocal.withInitial(() -> new HotLogRecord(this, HotLogRecord.SYNC));
+
+		formatter = new Thread(this::formatLoop, "hot-log-formatter");
+		formatter.setDaemon(true);
+		formatter.start();
+	}
+
+	public static HotLog get() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Registers a message site, settings given by {@link #configureSite(String, int, int)} are applied to it.
+	 *
+	 * @param pattern slf4j style pattern with up to {@value HotLogRecord#MAX_ARGS} {@code {}} placeholders
+	 */
+	public static HotLogSite site(Logger logger, String name, Level level, String pattern) {
+		return INSTANCE.register(new HotLogSite(INSTANCE, logger, name, level, pattern));
+	}
+
+	private HotLogSite register(HotLogSite site) {
+		final int[] settings = siteSettings.get(site.getName());
+		if (settings != null) {
+			site.sampleEvery(settings[0]).maxPerSecond(settings[1]);
+		}
+		sites.put(site.getName(), site);
+
+		return site;
+	}
+
+	/**
+	 * Overrides sampling and rate limit of a site, for the sites that are registered later too.
+	 */
+	public void configureSite(String name, int sampleEvery, int maxPerSecond) {
+		siteSettings.put(name, new int[]{sampleEvery, maxPerSecond});
+		final HotLogSite site = sites.get(name);
+		if (site != null) {
+			site.sampleEvery(sampleEvery).maxPerSecond(maxPerSecond);
+		}
+	}
+
+	public void setAsync(boolean async) {
+		this.async = async;
+	}
+
+	HotLogRecord claim(HotLogSite site) {
+		if (!async) {
+			final HotLogRecord record = syncRecord.get();
+			record.start(site, HotLogRecord.SYNC);
+
+			return record;
+		}
+
+		while (true) {
+			final long t = tail.get();
+			final HotLogRecord record = ring[(int) (t & mask)];
+			final long sequence = record.sequence;
+			if (sequence == t) {
+				if (tail.compareAndSet(t, t + 1)) {
+					record.start(site, t);
+
+					return record;
+				}
+			} else if (sequence < t) {
+				// The slot still holds the record of the previous lap, the ring is full
+				dropped.increment();
+
+				return null;
+			}
+			// Otherwise another producer has claimed t meanwhile
+		}
+	}
+
+	void publish(HotLogRecord record) {
+		if (record.claimed == HotLogRecord.SYNC) {
+			final StringBuilder sb = new StringBuilder();
+			format(record, sb);
+			record.clear();
+
+			return;
+		}
+
+		record.sequence = record.claimed + 1;
+		if (sleeping) {
+			LockSupport.unpark(formatter);
+		}
+	}
+
+	/**
+	 * Waits until everything published so far is formatted or the timeout expires.
+	 */
+	public void flush(Duration timeout) {
+		final long target = tail.get();
+		final long deadline = System.nanoTime() + timeout.toNanos();
+		while (head.get() < target && System.nanoTime() < deadline) {
+			LockSupport.parkNanos(FLUSH_PARK_NANOS);
+		}
+	}
+
+	private void formatLoop() {
+		final StringBuilder sb = new StringBuilder(256);
+		final long parkNanos = TimeUnit.MILLISECONDS.toNanos(DROPPED_REPORT_MS);
+		long lastDroppedReport = System.currentTimeMillis();
+		while (true) {
+			lastDroppedReport = reportDropped(lastDroppedReport);
+			final long h = head.get();
+			final HotLogRecord record = ring[(int) (h & mask)];
+			// Nothing claimed yet or claimed, but not published yet
+			if (record.sequence != h + 1) {
+				park(record, h + 1, parkNanos);
+				continue;
+			}
+
+			try {
+				format(record, sb);
+			} catch (Throwable e) {
+				log.error("Hot path log formatter failure", e);
+			}
+			record.clear();
+			// Frees the slot for the claim of the next lap
+			record.sequence = h + ring.length;
+			head.set(h + 1);
+		}
+	}
+
+	private void park(HotLogRecord record, long published, long nanos) {
+		sleeping = true;
+		// Re-checked after the flag is set, so a publish in between is not missed
+		if (record.sequence != published) {
+			LockSupport.parkNanos(this, nanos);
+		}
+		sleeping = false;
+	}
+
+	private void format(HotLogRecord record, StringBuilder sb) {
+		sb.setLength(0);
+		record.formatTo(sb);
+		final long suppressed = record.site.drainSuppressed();
+		if (suppressed > 0) {
+			sb.append(" (").append(suppressed).append(" more suppressed by the rate limit)");
+		}
+		if (record.thread != Thread.currentThread()) {
+			sb.append(" [").append(record.thread.getName()).append(", +")
+				.append(System.currentTimeMillis() - record.timestamp).append("ms]");
+		}
+		record.site.write(sb.toString());
+	}
+
+	private long reportDropped(long lastReport) {
+		final long now = System.currentTimeMillis();
+		if (now - lastReport < DROPPED_REPORT_MS) {
+			return lastReport;
+		}
+
+		final long count = dropped.sumThenReset();
+		if (count > 0) {
+			log.warn("{} hot path log records have been dropped, the ring of {} is full", count, ring.length);
+		}
+
+		return now;
+	}
+}
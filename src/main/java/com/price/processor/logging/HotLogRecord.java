@@ -0,0 +1,117 @@
+package com.price.processor.logging;
+
+import java.util.Arrays;
+
+/**
+ * Preallocated binary log record of a {@link HotLog} ring slot. Arguments are kept as raw longs, doubles and
+ * references to already existing objects, formatting happens on the {@link HotLog} formatter thread.
+ * <p>
+ * A record obtained from {@link HotLogSite#begin()} must always be {@link #publish() published}: the formatter never
+ * gets past an unpublished record, so the ring fills up behind it and every later record is dropped.
+ */
+public final class HotLogRecord {
+	static final int MAX_ARGS = 4;
+	static final long SYNC = -2L;
+
+	private static final byte OBJECT = 0;
+	private static final byte LONG = 1;
+	private static final byte DOUBLE = 2;
+
+	private final HotLog owner;
+	/*
+	 * Ownership of the slot: equal to the claim sequence while the slot is free for that claim, claim + 1 once the
+	 * claim is published and claim + capacity once the formatter has freed it for the next lap of the ring.
+	 */
+	volatile long sequence;
+	long claimed;
+	HotLogSite site;
+	long timestamp;
+	Thread thread;
+
+	private int argc;
+	private final byte[] kinds = new byte[MAX_ARGS];
+	private final long[] values = new long[MAX_ARGS];
+	private final Object[] refs = new Object[MAX_ARGS];
+
+	HotLogRecord(HotLog owner, long sequence) {
+		this.owner = owner;
+		this.sequence = sequence;
+	}
+
+	void start(HotLogSite site, long claimed) {
+		this.site = site;
+		this.claimed = claimed;
+		this.timestamp = System.currentTimeMillis();
+		this.thread = Thread.currentThread();
+		this.argc = 0;
+	}
+
+	/**
+	 * Only the reference is stored, so pass immutable objects (strings, enums etc.).
+	 */
+	public HotLogRecord arg(Object value) {
+		if (argc < MAX_ARGS) {
+			kinds[argc] = OBJECT;
+			refs[argc++] = value;
+		}
+
+		return this;
+	}
+
+	public HotLogRecord arg(long value) {
+		if (argc < MAX_ARGS) {
+			kinds[argc] = LONG;
+			values[argc++] = value;
+		}
+
+		return this;
+	}
+
+	public HotLogRecord arg(double value) {
+		if (argc < MAX_ARGS) {
+			kinds[argc] = DOUBLE;
+			values[argc++] = Double.doubleToRawLongBits(value);
+		}
+
+		return this;
+	}
+
+	public void publish() {
+		owner.publish(this);
+	}
+
+	/**
+	 * Substitutes slf4j style {@code {}} placeholders of the site pattern.
+	 */
+	void formatTo(StringBuilder sb) {
+		final String pattern = site.getPattern();
+		int arg = 0;
+		int from = 0;
+		int at;
+		while ((at = pattern.indexOf("{}", from)) >= 0) {
+			sb.append(pattern, from, at);
+			if (arg < argc) {
+				appendArg(sb, arg++);
+			} else {
+				sb.append("{}");
+			}
+			from = at + 2;
+		}
+		sb.append(pattern, from, pattern.length());
+	}
+
+	private void appendArg(StringBuilder sb, int i) {
+		switch (kinds[i]) {
+			case LONG -> sb.append(values[i]);
+			case DOUBLE -> sb.append(Double.longBitsToDouble(values[i]));
+			default -> sb.append(refs[i]);
+		}
+	}
+
+	void clear() {
+		Arrays.fill(refs, null);
+		site = null;
+		thread = null;
+		argc = 0;
+	}
+}
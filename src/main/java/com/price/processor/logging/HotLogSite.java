@@ -0,0 +1,128 @@
+package com.price.processor.logging;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.Getter;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.event.Level;
+
+/**
+ * A single log statement of the price pipeline with its own sampling and rate limit.
+ * <p>
+ * Usage:
+ * <pre>
+ * private static final HotLogSite PROCESSING = HotLog.site(log, "dummy-processing", Level.INFO, "Processing '{}', rate '{}'");
+ * ...
+ * final HotLogRecord record = PROCESSING.begin();
+ * if (record != null) {
+ *     record.arg(ccyPair).arg(rate).publish();
+ * }
+ * </pre>
+ */
+public final class HotLogSite {
+	private static final long WINDOW_MS = 1000L;
+
+	@Getter
+	private final String name;
+	@Getter
+	private final Logger logger;
+	@Getter
+	private final Level level;
+	@Getter
+	private final String pattern;
+	private final HotLog hotLog;
+
+	// Only every n-th call is logged
+	private volatile int sampleEvery = 1;
+	// Calls above this limit within a second are counted and reported with the next logged record
+	private volatile int maxPerSecond = Integer.MAX_VALUE;
+
+	private final AtomicLong calls = new AtomicLong();
+	private final AtomicLong windowStart = new AtomicLong();
+	private final AtomicInteger inWindow = new AtomicInteger();
+	private final LongAdder suppressed = new LongAdder();
+
+	HotLogSite(HotLog hotLog, Logger logger, String name, Level level, String pattern) {
+		this.hotLog = hotLog;
+		this.logger = logger;
+		this.name = name;
+		this.level = level;
+		this.pattern = pattern;
+	}
+
+	/**
+	 * @return record to fill and publish or {@code null} if the call is not going to be logged
+	 */
+	@Nullable
+	public HotLogRecord begin() {
+		if (!isLevelEnabled()) {
+			return null;
+		}
+
+		final int sample = sampleEvery;
+		if (sample > 1 && calls.getAndIncrement() % sample != 0) {
+			return null;
+		}
+
+		if (!acquirePermit()) {
+			suppressed.increment();
+
+			return null;
+		}
+
+		return hotLog.claim(this);
+	}
+
+	public HotLogSite sampleEvery(int sampleEvery) {
+		this.sampleEvery = Math.max(1, sampleEvery);
+
+		return this;
+	}
+
+	public HotLogSite maxPerSecond(int maxPerSecond) {
+		this.maxPerSecond = maxPerSecond <= 0 ? Integer.MAX_VALUE : maxPerSecond;
+
+		return this;
+	}
+
+	long drainSuppressed() {
+		return suppressed.sumThenReset();
+	}
+
+	private boolean acquirePermit() {
+		final int limit = maxPerSecond;
+		if (limit == Integer.MAX_VALUE) {
+			return true;
+		}
+
+		final long now = System.currentTimeMillis();
+		final long start = windowStart.get();
+		if (now - start >= WINDOW_MS && windowStart.compareAndSet(start, now)) {
+			inWindow.set(0);
+		}
+
+		return inWindow.incrementAndGet() <= limit;
+	}
+
+	boolean isLevelEnabled() {
+		return switch (level) {
+			case ERROR -> logger.isErrorEnabled();
+			case WARN -> logger.isWarnEnabled();
+			case INFO -> logger.isInfoEnabled();
+			case DEBUG -> logger.isDebugEnabled();
+			case TRACE -> logger.isTraceEnabled();
+		};
+	}
+
+	void write(String message) {
+		switch (level) {
+			case ERROR -> logger.error(message);
+			case WARN -> logger.warn(message);
+			case INFO -> logger.info(message);
+			case DEBUG -> logger.debug(message);
+			case TRACE -> logger.trace(message);
+		}
+	}
+}
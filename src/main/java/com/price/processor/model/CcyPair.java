@@ -1,10 +1,40 @@
 package com.price.processor.model;
 
-import javax.money.CurrencyUnit;
+/**
+ * Currency pair, both currencies are dense indexes in the {@link CurrencyTable#current()} table.
+ * <p>
+ * Use {@link com.price.processor.service.CurrencyUtil#toCurrencyUnit(int)} at the edges that need Moneta.
+ */
+public record CcyPair(int base, int quote) {
+	private static final int PACKED_CODE_BITS = 15;
+
+	/**
+	 * @return both packed 3-letter codes in a single int, stable across processes and table versions
+	 */
+	public int code() {
+		final CurrencyTable table = CurrencyTable.current();
+
+		return (table.packedCode(base) << PACKED_CODE_BITS) | table.packedCode(quote);
+	}
+
+	/**
+	 * @return pair for the {@link #code()} or {@code null} if some of the currencies is unknown
+	 */
+	public static CcyPair fromCode(int code) {
+		final CurrencyTable table = CurrencyTable.current();
+		final int base = table.indexOf(code >>> PACKED_CODE_BITS);
+		final int quote = table.indexOf(code & ((1 << PACKED_CODE_BITS) - 1));
+		if (base == CurrencyTable.UNKNOWN || quote == CurrencyTable.UNKNOWN) {
+			return null;
+		}
+
+		return new CcyPair(base, quote);
+	}
 
-public record CcyPair(CurrencyUnit unitOne, CurrencyUnit unitTwo) {
 	@Override
 	public String toString() {
-		return this.unitOne.getCurrencyCode() + unitTwo.getCurrencyCode();
+		final CurrencyTable table = CurrencyTable.current();
+
+		return table.code(base) + table.code(quote);
 	}
 }
@@ -0,0 +1,142 @@
+package com.price.processor.model;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Currency;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Compact currency table that doesn't go through Moneta's provider chain.
+ * <p>
+ * A 3-letter ISO-4217 code is packed into an int (5 bits per letter, 15 bits total), so the lookup of a dense
+ * currency index is a single array read. Indexes are assigned in the alphabetical order of the codes and are stable
+ * for the lifetime of the table.
+ * <p>
+ * Pairs are made of the indexes of the process-wide {@link #current()} table. By default it's the ISO-4217 data
+ * shipped with the JDK, see {@link #iso4217()}, another one can be {@link #install installed} at startup.
+ */
+public final class CurrencyTable {
+	public static final int UNKNOWN = -1;
+	public static final int CODE_LENGTH = 3;
+
+	private static final int BITS_PER_LETTER = 5;
+	private static final int CODE_SPACE = 1 << (BITS_PER_LETTER * CODE_LENGTH);
+
+	private static final CurrencyTable ISO_4217 = new CurrencyTable(
+		Currency.getAvailableCurrencies().stream().map(Currency::getCurrencyCode).toList()
+	);
+	private static volatile CurrencyTable current = ISO_4217;
+
+	private final short[] indexByCode = new short[CODE_SPACE];
+	private final int[] packedCodes;
+	private final String[] codes;
+
+	/**
+	 * @param currencyCodes 3-letter upper case currency codes, duplicates are ignored
+	 * @throws IllegalArgumentException if some code is not a 3-letter upper case code
+	 */
+	public CurrencyTable(@NotNull Collection<String> currencyCodes) {
+		codes = currencyCodes.stream().distinct().sorted().toArray(String[]::new);
+		if (codes.length > Short.MAX_VALUE) {
+			throw new IllegalArgumentException("Too many currencies: " + codes.length);
+		}
+
+		packedCodes = new int[codes.length];
+		Arrays.fill(indexByCode, (short) UNKNOWN);
+		for (int i = 0; i < codes.length; i++) {
+			final int packed = pack(codes[i], 0);
+			if (codes[i].length() != CODE_LENGTH || packed == UNKNOWN) {
+				throw new IllegalArgumentException(String.format("Invalid currency code '%s'", codes[i]));
+			}
+			packedCodes[i] = packed;
+			indexByCode[packed] = (short) i;
+		}
+	}
+
+	/**
+	 * @return the table of all ISO-4217 currencies known to the JDK
+	 */
+	public static CurrencyTable iso4217() {
+		return ISO_4217;
+	}
+
+	/**
+	 * @return the table the pairs of the process are made of
+	 */
+	public static CurrencyTable current() {
+		return current;
+	}
+
+	/**
+	 * Makes the table the {@link #current()} one. Call at startup, before any pair is made: the indexes of the pairs
+	 * made of the previous table don't match the new one.
+	 */
+	public static void install(@NotNull CurrencyTable table) {
+		current = table;
+	}
+
+	/**
+	 * Packs 3 upper case latin letters starting at the {@code offset} into an int.
+	 *
+	 * @return packed code or {@link #UNKNOWN} if there are no 3 upper case letters at the offset
+	 */
+	public static int pack(@NotNull CharSequence code, int offset) {
+		if (offset < 0 || code.length() < offset + CODE_LENGTH) {
+			return UNKNOWN;
+		}
+
+		int packed = 0;
+		for (int i = offset; i < offset + CODE_LENGTH; i++) {
+			final int letter = code.charAt(i) - 'A';
+			if (letter < 0 || letter > 'Z' - 'A') {
+				return UNKNOWN;
+			}
+			packed = (packed << BITS_PER_LETTER) | letter;
+		}
+
+		return packed;
+	}
+
+	/**
+	 * @return 3-letter code for the packed one
+	 */
+	public static String unpack(int packedCode) {
+		final char[] chars = new char[CODE_LENGTH];
+		for (int i = CODE_LENGTH - 1; i >= 0; i--) {
+			chars[i] = (char) ('A' + (packedCode & ((1 << BITS_PER_LETTER) - 1)));
+			packedCode >>>= BITS_PER_LETTER;
+		}
+
+		return new String(chars);
+	}
+
+	/**
+	 * @return dense currency index or {@link #UNKNOWN}
+	 */
+	public int indexOf(int packedCode) {
+		if (packedCode < 0 || packedCode >= CODE_SPACE) {
+			return UNKNOWN;
+		}
+
+		return indexByCode[packedCode];
+	}
+
+	/**
+	 * @return dense index of the 3-letter code starting at the {@code offset} or {@link #UNKNOWN}
+	 */
+	public int indexOf(@NotNull CharSequence code, int offset) {
+		return indexOf(pack(code, offset));
+	}
+
+	public int packedCode(int index) {
+		return packedCodes[index];
+	}
+
+	public String code(int index) {
+		return codes[index];
+	}
+
+	public int size() {
+		return codes.length;
+	}
+}
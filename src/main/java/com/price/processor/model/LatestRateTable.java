@@ -0,0 +1,148 @@
+package com.price.processor.model;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import lombok.Getter;
+
+/**
+ * Last known rate of every pair, addressed by a dense pair id assigned on the first tick of the pair.
+ * <p>
+ * Every slot is protected by a seqlock, so readers get a consistent rate/version/timestamp triple without locking
+ * and writers of different pairs never contend.
+ */
+public final class LatestRateTable {
+	public static final int UNKNOWN = -1;
+
+	private final ConcurrentHashMap<CcyPair, Integer> ids = new ConcurrentHashMap<>();
+	private final AtomicReferenceArray<CcyPair> pairs;
+	// Names are built once, so nothing is allocated per tick to get the pair name
+	private final AtomicReferenceArray<String> names;
+	private final AtomicInteger size = new AtomicInteger();
+	// Odd while a slot is being written
+	private final AtomicLongArray seqs;
+	private final long[] rates;
+	private final long[] versions;
+	private final long[] timestamps;
+
+	public LatestRateTable(int capacity) {
+		this.pairs = new AtomicReferenceArray<>(capacity);
+		this.names = new AtomicReferenceArray<>(capacity);
+		this.seqs = new AtomicLongArray(capacity);
+		this.rates = new long[capacity];
+		this.versions = new long[capacity];
+		this.timestamps = new long[capacity];
+	}
+
+	/**
+	 * @return pair id or {@link #UNKNOWN} if the table is full
+	 */
+	public int register(CcyPair pair) {
+		final Integer id = ids.get(pair);
+
+		return id != null ? id : registerNew(pair);
+	}
+
+	private synchronized int registerNew(CcyPair pair) {
+		final Integer id = ids.get(pair);
+		if (id != null) {
+			return id;
+		}
+
+		final int next = size.get();
+		if (next >= pairs.length()) {
+			return UNKNOWN;
+		}
+		pairs.set(next, pair);
+		names.set(next, pair.toString());
+		ids.put(pair, next);
+		size.set(next + 1);
+
+		return next;
+	}
+
+	/**
+	 * @return pair id or {@link #UNKNOWN} if the pair has never ticked
+	 */
+	public int idOf(CcyPair pair) {
+		return ids.getOrDefault(pair, UNKNOWN);
+	}
+
+	public CcyPair pair(int id) {
+		return pairs.get(id);
+	}
+
+	/**
+	 * @return pair name like 'EURUSD'
+	 */
+	public String name(int id) {
+		return names.get(id);
+	}
+
+	/**
+	 * @return number of registered pairs, ids are {@code 0..size-1}
+	 */
+	public int size() {
+		return size.get();
+	}
+
+	public int capacity() {
+		return pairs.length();
+	}
+
+	/**
+	 * @return version of the stored rate, it's incremented by every update of the pair
+	 */
+	public long update(int id, double rate, long timestampMillis) {
+		final long seq = lock(id);
+		final long version = versions[id] + 1;
+		rates[id] = Double.doubleToRawLongBits(rate);
+		versions[id] = version;
+		timestamps[id] = timestampMillis;
+		seqs.set(id, seq + 2);
+
+		return version;
+	}
+
+	/**
+	 * @return {@code false} if the pair has no rate yet
+	 */
+	public boolean read(int id, Snapshot into) {
+		long seq;
+		do {
+			seq = seqs.get(id);
+			while ((seq & 1L) != 0) {
+				Thread.onSpinWait();
+				seq = seqs.get(id);
+			}
+			into.rate = Double.longBitsToDouble(rates[id]);
+			into.version = versions[id];
+			into.timestampMillis = timestamps[id];
+			VarHandle.acquireFence();
+		} while (seqs.get(id) != seq);
+
+		return into.version > 0;
+	}
+
+	private long lock(int id) {
+		while (true) {
+			final long seq = seqs.get(id);
+			if ((seq & 1L) == 0 && seqs.compareAndSet(id, seq, seq + 1)) {
+				return seq;
+			}
+			Thread.onSpinWait();
+		}
+	}
+
+	/**
+	 * Reusable holder of a slot read.
+	 */
+	@Getter
+	public static final class Snapshot {
+		private double rate;
+		private long version;
+		private long timestampMillis;
+	}
+}
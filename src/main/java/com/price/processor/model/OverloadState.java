@@ -0,0 +1,13 @@
+package com.price.processor.model;
+
+/**
+ * How far the {@link com.price.processor.service.PriceThrottler} is degrading on purpose to keep up with the ticks.
+ */
+public enum OverloadState {
+	// Static soft timeout, every tick is fanned out
+	NORMAL,
+	// The delivery workers are falling behind, the soft timeout is shortened
+	DEGRADED,
+	// Ticks of the hot pairs are coalesced at the source, only the last one per conflation interval is fanned out
+	SATURATED
+}
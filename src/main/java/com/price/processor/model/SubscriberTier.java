@@ -0,0 +1,24 @@
+package com.price.processor.model;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Priority tier of a subscriber. A higher tier gets a delivery worker first, unless a lower tier has waited longer than
+ * its latency objective, see {@link com.price.processor.config.PriceThrottlerConfig#getTiers()} to override the defaults.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum SubscriberTier {
+	// Trading screens
+	REALTIME(Duration.ofMillis(50L), 100),
+	STANDARD(Duration.ofSeconds(1L), 75),
+	// Audit, printers and other sinks that may lag
+	BULK(Duration.ofSeconds(10L), 25);
+
+	// How long a subscriber with pending rates may wait for a worker
+	private final Duration defaultLatencyObjective;
+	// Share of the workers the tier may occupy at once, so slow lower tiers can't take all of them
+	private final int defaultWorkerPercent;
+}
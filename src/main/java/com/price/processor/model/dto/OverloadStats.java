@@ -0,0 +1,17 @@
+package com.price.processor.model.dto;
+
+import com.price.processor.model.OverloadState;
+
+/**
+ * Overload control state of the throttler.
+ *
+ * @param level                level of the control loop, {@code 0} is normal operation
+ * @param utilization          share of the busy delivery workers at the last check
+ * @param lag                  longest wait for a worker relative to the latency objective of the tier, above 1 is late
+ * @param softTimeoutMs        soft timeout in effect
+ * @param conflationIntervalMs minimum interval between fan-outs of a hot pair, {@code 0} if ticks are not coalesced
+ * @param coalescedTicks       ticks of the hot pairs that were not fanned out on their own since the start
+ */
+public record OverloadStats(OverloadState state, int level, double utilization, int queued, double lag, long softTimeoutMs,
+	long conflationIntervalMs, long coalescedTicks) {
+}
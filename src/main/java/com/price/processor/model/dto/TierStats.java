@@ -0,0 +1,10 @@
+package com.price.processor.model.dto;
+
+/**
+ * Delivery scheduling state of a {@link com.price.processor.model.SubscriberTier}.
+ *
+ * @param overrunWorkers  workers draining longer than the soft timeout, not counted in {@code busyWorkers}
+ * @param objectiveMisses how many times a subscriber of the tier waited for a worker longer than the objective
+ */
+public record TierStats(long latencyObjectiveMs, int maxWorkers, int busyWorkers, int overrunWorkers, int queued, long objectiveMisses) {
+}
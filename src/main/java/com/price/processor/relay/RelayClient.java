@@ -0,0 +1,158 @@
+package com.price.processor.relay;
+
+import com.price.processor.config.RelayConfig;
+import com.price.processor.event.ExchangeRatesChangedEvent;
+import com.price.processor.model.CcyPair;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ProtocolException;
+import java.net.Socket;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * Downstream side of the relay: receives the conflated changes from the upstream instance and publishes them as
+ * {@link ExchangeRatesChangedEvent}s, just like the generator does, so the local monitor and throttler get them.
+ * <p>
+ * On any error, including a gap in the sequence, it reconnects and resyncs with the snapshot the upstream sends first.
+ * Only the rates that differ from the last received ones are published after a resync.
+ */
+@Slf4j
+public class RelayClient implements Closeable {
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final RelayConfig config;
+	private final ApplicationEventPublisher eventPublisher;
+	private final InetSocketAddress upstream;
+	// Last rates received from the upstream, accessed by the client thread only
+	private final Map<CcyPair, Double> lastRates = new HashMap<>();
+	private final Thread thread;
+	private volatile Socket socket;
+	private volatile boolean running = true;
+
+	// Sequence of the last snapshot or batch, 0 while not in sync
+	@Getter
+	private volatile long lastSequence;
+	@Getter
+	private volatile long resyncs;
+
+	public RelayClient(RelayConfig config, ApplicationEventPublisher eventPublisher) {
+		this.config = config;
+		this.eventPublisher = eventPublisher;
+		this.upstream = parseAddress(config.getUpstream());
+		this.thread = new Thread(this::run, "relay-client");
+		this.thread.setDaemon(true);
+	}
+
+	public void start() {
+		thread.start();
+	}
+
+	@Override
+	public void close() {
+		running = false;
+		final Socket current = socket;
+		if (current != null) {
+			RelayServer.closeQuietly(current);
+		}
+		thread.interrupt();
+	}
+
+	private void run() {
+		while (running) {
+			try (Socket s = new Socket()) {
+				socket = s;
+				s.connect(upstream, (int) config.getReconnectDelay().toMillis() * 5);
+				s.setTcpNoDelay(true);
+				s.setSoTimeout((int) config.getHeartbeat().toMillis() * 3);
+				log.info("Connected to upstream {}", upstream);
+
+				RelayProtocol.writeHello(new DataOutputStream(new BufferedOutputStream(s.getOutputStream())));
+				receive(new DataInputStream(new BufferedInputStream(s.getInputStream(), BUFFER_SIZE)));
+			} catch (IOException e) {
+				if (running) {
+					log.warn("Relay from upstream {} failed: {}", upstream, e.getMessage());
+				}
+			} finally {
+				lastSequence = 0L;
+			}
+
+			try {
+				Thread.sleep(config.getReconnectDelay().toMillis());
+			} catch (InterruptedException e) {
+				break;
+			}
+		}
+	}
+
+	private void receive(DataInputStream in) throws IOException {
+		while (running) {
+			final byte type = in.readByte();
+			final long seq = in.readLong();
+			switch (type) {
+				case RelayProtocol.HEARTBEAT -> {
+					if (lastSequence != 0L && seq != lastSequence) {
+						throw new ProtocolException(String.format("Missed frames, last %d, upstream is at %d", lastSequence, seq));
+					}
+				}
+				case RelayProtocol.SNAPSHOT -> {
+					publish(read(in), true);
+					lastSequence = seq;
+					resyncs++;
+				}
+				case RelayProtocol.BATCH -> {
+					if (lastSequence == 0L || seq != lastSequence + 1) {
+						throw new ProtocolException(String.format("Unexpected batch %d, last %d", seq, lastSequence));
+					}
+					publish(read(in), false);
+					lastSequence = seq;
+				}
+				default -> throw new ProtocolException(String.format("Unknown frame type %d", type));
+			}
+		}
+	}
+
+	private Map<CcyPair, Double> read(DataInputStream in) throws IOException {
+		final int count = in.readInt();
+		final Map<CcyPair, Double> rates = new HashMap<>(count * 2);
+		for (int i = 0; i < count; i++) {
+			final int code = in.readInt();
+			final double rate = in.readDouble();
+			final CcyPair pair = CcyPair.fromCode(code);
+			if (pair == null) {
+				log.warn("Skipping unknown pair code {} from upstream", code);
+				continue;
+			}
+			rates.put(pair, rate);
+		}
+
+		return rates;
+	}
+
+	private void publish(Map<CcyPair, Double> rates, boolean snapshot) {
+		if (snapshot) {
+			rates.entrySet().removeIf(e -> e.getValue().equals(lastRates.get(e.getKey())));
+		}
+		lastRates.putAll(rates);
+		if (!rates.isEmpty()) {
+			eventPublisher.publishEvent(new ExchangeRatesChangedEvent(this, rates));
+		}
+	}
+
+	private static InetSocketAddress parseAddress(String hostPort) {
+		final int colon = hostPort.lastIndexOf(':');
+		if (colon <= 0) {
+			throw new IllegalArgumentException(String.format("Invalid upstream '%s', expected host:port", hostPort));
+		}
+
+		return new InetSocketAddress(hostPort.substring(0, colon), Integer.parseInt(hostPort.substring(colon + 1)));
+	}
+}
@@ -0,0 +1,147 @@
+package com.price.processor.relay;
+
+import com.price.processor.service.BatchPriceProcessor;
+import com.price.processor.service.PriceBatch;
+import com.price.processor.service.PriceProcessor;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A downstream instance as seen by the upstream throttler: a batch subscriber writing every batch as one frame.
+ * A slow network is just a slow subscriber, its pending rates are conflated meanwhile.
+ */
+@Slf4j
+class RelayConnection implements BatchPriceProcessor {
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final Socket socket;
+	private final DataOutputStream out;
+	private final long writeTimeoutMs;
+	private final Consumer<RelayConnection> onClosed;
+	// Batches and heartbeats share the stream
+	private final ReentrantLock writeLock = new ReentrantLock();
+	private long seq;
+	private volatile long writingSince;
+	private volatile boolean closed;
+
+	RelayConnection(Socket socket, Duration writeTimeout, Consumer<RelayConnection> onClosed) {
+		this.socket = socket;
+		this.writeTimeoutMs = writeTimeout.toMillis();
+		this.onClosed = onClosed;
+		try {
+			this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	SocketAddress getRemoteAddress() {
+		return socket.getRemoteSocketAddress();
+	}
+
+	@Override
+	public void onPrices(PriceBatch batch) {
+		writeLock.lock();
+		try {
+			writingSince = System.currentTimeMillis();
+			out.writeByte(seq == 0L ? RelayProtocol.SNAPSHOT : RelayProtocol.BATCH);
+			out.writeLong(++seq);
+			out.writeInt(batch.size());
+			for (int i = 0; i < batch.size(); i++) {
+				out.writeInt(batch.pair(i).code());
+				out.writeDouble(batch.rate(i));
+			}
+			out.flush();
+		} catch (IOException e) {
+			log.warn("Failed to relay {} rates to {}: {}", batch.size(), getRemoteAddress(), e.getMessage());
+			close();
+		} finally {
+			writingSince = 0L;
+			writeLock.unlock();
+		}
+	}
+
+	@Override
+	public void onPrice(String ccyPair, double rate) {
+		// Never called, the throttler always delivers to a BatchPriceProcessor in batches
+	}
+
+	void heartbeat() {
+		if (closed) {
+			return;
+		}
+		// A batch is being written, that's a sign of life as well, unless it's stuck
+		if (!writeLock.tryLock()) {
+			if (isStuck()) {
+				log.warn("Relay to {} is stuck for more than {} ms, disconnecting", getRemoteAddress(), writeTimeoutMs);
+				close();
+			}
+
+			return;
+		}
+		try {
+			writingSince = System.currentTimeMillis();
+			out.writeByte(RelayProtocol.HEARTBEAT);
+			out.writeLong(seq);
+			out.flush();
+		} catch (IOException e) {
+			log.warn("Failed to send a heartbeat to {}: {}", getRemoteAddress(), e.getMessage());
+			close();
+		} finally {
+			writingSince = 0L;
+			writeLock.unlock();
+		}
+	}
+
+	synchronized void close() {
+		if (closed) {
+			return;
+		}
+
+		closed = true;
+		RelayServer.closeQuietly(socket);
+		onClosed.accept(this);
+	}
+
+	private boolean isStuck() {
+		final long since = writingSince;
+
+		return since != 0L && System.currentTimeMillis() - since > writeTimeoutMs;
+	}
+
+	@Override
+	public void subscribe(PriceProcessor priceProcessor) {
+		log.warn("Subscribing to a relay connection is not supported");
+	}
+
+	@Override
+	public void unsubscribe(PriceProcessor priceProcessor) {
+		log.warn("Unsubscribing from a relay connection is not supported");
+	}
+
+	/**
+	 * A batch being written can't be aborted, so the downstream is dropped if it's stuck for longer than the write
+	 * timeout. It resyncs with a snapshot on reconnect.
+	 *
+	 * @return {@code false} if the connection has been dropped
+	 */
+	@Override
+	public boolean cancel() {
+		if (isStuck()) {
+			log.warn("Relay to {} is stuck for more than {} ms, disconnecting", getRemoteAddress(), writeTimeoutMs);
+			close();
+
+			return false;
+		}
+
+		return true;
+	}
+}
@@ -0,0 +1,45 @@
+package com.price.processor.relay;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.ProtocolException;
+
+/**
+ * Wire format between an upstream {@link RelayServer} and a downstream {@link RelayClient}, all numbers are big-endian.
+ * <pre>
+ * hello     (downstream to upstream, once)  int magic, short version
+ * snapshot  byte 1, long seq, int count, count * (int pairCode, double rate)
+ * batch     byte 2, long seq, int count, count * (int pairCode, double rate)
+ * heartbeat byte 0, long seq
+ * </pre>
+ * Every connection starts with a snapshot of the latest rates of all the pairs, then only the conflated changes follow.
+ * {@code seq} is incremented by every snapshot or batch of the connection, a heartbeat repeats the last one, so a
+ * missed frame is noticed and the downstream reconnects, which resyncs it with a new snapshot. {@code pairCode} is
+ * {@link com.price.processor.model.CcyPair#code()}.
+ */
+final class RelayProtocol {
+	static final int MAGIC = 0x43505231;
+	static final short VERSION = 1;
+
+	static final byte HEARTBEAT = 0;
+	static final byte SNAPSHOT = 1;
+	static final byte BATCH = 2;
+
+	private RelayProtocol() {
+	}
+
+	static void writeHello(DataOutputStream out) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeShort(VERSION);
+		out.flush();
+	}
+
+	static void readHello(DataInputStream in) throws IOException {
+		final int magic = in.readInt();
+		final short version = in.readShort();
+		if (magic != MAGIC || version != VERSION) {
+			throw new ProtocolException(String.format("Unsupported relay peer, magic %08x, version %d", magic, version));
+		}
+	}
+}
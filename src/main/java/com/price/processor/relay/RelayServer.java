@@ -0,0 +1,161 @@
+package com.price.processor.relay;
+
+import com.price.processor.config.RelayConfig;
+import com.price.processor.service.PriceThrottler;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Upstream side of the relay: every accepted downstream instance is subscribed to the local {@link PriceThrottler} as
+ * a single batch subscriber, so it gets the conflated changes and the local subscribers fan them out further.
+ * <p>
+ * The hello of a new connection is read by a handshake thread, at most {@value #MAX_HANDSHAKES} at a time, so a client
+ * that connects and stays silent doesn't hold up the others.
+ */
+@Slf4j
+public class RelayServer implements Closeable {
+	private static final int MAX_HANDSHAKES = 16;
+
+	private final RelayConfig config;
+	private final PriceThrottler throttler;
+	private final List<RelayConnection> connections = new CopyOnWriteArrayList<>();
+	private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(r -> {
+		final Thread thread = new Thread(r, "relay-heartbeat");
+		thread.setDaemon(true);
+
+		return thread;
+	});
+	// No queue, a connection beyond the limit is refused right away
+	private final ExecutorService handshakes = new ThreadPoolExecutor(
+		0, MAX_HANDSHAKES, 60L, TimeUnit.SECONDS, new SynchronousQueue<>(), r -> {
+			final Thread thread = new Thread(r, "relay-handshake");
+			thread.setDaemon(true);
+
+			return thread;
+		}
+	);
+	private ServerSocket serverSocket;
+	private volatile boolean running = true;
+
+	public RelayServer(RelayConfig config, PriceThrottler throttler) {
+		this.config = config;
+		this.throttler = throttler;
+	}
+
+	public void start() throws IOException {
+		serverSocket = new ServerSocket();
+		serverSocket.bind(new InetSocketAddress(config.getPort()));
+
+		final Thread acceptor = new Thread(this::accept, "relay-acceptor");
+		acceptor.setDaemon(true);
+		acceptor.start();
+
+		final long heartbeat = config.getHeartbeat().toMillis();
+		heartbeats.scheduleAtFixedRate(this::heartbeat, heartbeat, heartbeat, TimeUnit.MILLISECONDS);
+		log.info("Relay is listening on port {}", getPort());
+	}
+
+	/**
+	 * @return the bound port, differs from the configured one if that is 0
+	 */
+	public int getPort() {
+		return serverSocket.getLocalPort();
+	}
+
+	public int getConnectionCount() {
+		return connections.size();
+	}
+
+	@Override
+	public void close() throws IOException {
+		running = false;
+		heartbeats.shutdownNow();
+		handshakes.shutdown();
+		serverSocket.close();
+		connections.forEach(RelayConnection::close);
+	}
+
+	private void accept() {
+		while (running) {
+			final Socket socket;
+			try {
+				socket = serverSocket.accept();
+			} catch (SocketException e) {
+				// Closed
+				break;
+			} catch (IOException e) {
+				log.error("Relay accept failed", e);
+				continue;
+			}
+
+			try {
+				handshakes.execute(() -> handshake(socket));
+			} catch (RejectedExecutionException e) {
+				log.warn("Rejected relay connection from {}: {} handshakes in progress", socket.getRemoteSocketAddress(),
+					MAX_HANDSHAKES);
+				closeQuietly(socket);
+			}
+		}
+	}
+
+	private void handshake(Socket socket) {
+		try {
+			socket.setTcpNoDelay(true);
+			socket.setSoTimeout((int) config.getHeartbeat().toMillis() * 3);
+			RelayProtocol.readHello(new DataInputStream(socket.getInputStream()));
+			socket.setSoTimeout(0);
+		} catch (IOException e) {
+			log.warn("Rejected relay connection from {}: {}", socket.getRemoteSocketAddress(), e.getMessage());
+			closeQuietly(socket);
+
+			return;
+		}
+
+		final RelayConnection connection = new RelayConnection(socket, config.getWriteTimeout(), this::onClosed);
+		connections.add(connection);
+		// Closed while the hello was being read, it's not subscribed yet
+		if (!running) {
+			connections.remove(connection);
+			closeQuietly(socket);
+
+			return;
+		}
+		log.info("Downstream {} connected", socket.getRemoteSocketAddress());
+		// The first batch carries the last rates of all the pairs, see PriceThrottler.subscribe
+		throttler.subscribe(connection, config.getTier(), config.getWeight());
+	}
+
+	private void onClosed(RelayConnection connection) {
+		if (connections.remove(connection)) {
+			log.info("Downstream {} disconnected", connection.getRemoteAddress());
+			throttler.unsubscribe(connection);
+		}
+	}
+
+	private void heartbeat() {
+		connections.forEach(RelayConnection::heartbeat);
+	}
+
+	static void closeQuietly(Socket socket) {
+		try {
+			socket.close();
+		} catch (IOException e) {
+			log.debug("Failed to close a relay socket", e);
+		}
+	}
+}
@@ -0,0 +1,15 @@
+package com.price.processor.service;
+
+/**
+ * Optional extension of {@link PriceProcessor} for the subscribers with a high fixed cost per call (a database, a
+ * printer). {@link PriceThrottler} detects it and, instead of calling {@link #onPrice(String, double)} once per pair,
+ * drains every pending conflated update of the subscriber into a single {@link #onPrices(PriceBatch)} call.
+ */
+public interface BatchPriceProcessor extends PriceProcessor {
+	/**
+	 * Receives the latest rate of every pair that has changed since the previous call.
+	 *
+	 * @param batch view over the updates, valid only until the method returns
+	 */
+	void onPrices(PriceBatch batch);
+}
@@ -1,36 +1,76 @@
 package com.price.processor.service;
 
 import com.price.processor.exception.ApplicationErrorException;
+import com.price.processor.logging.HotLog;
+import com.price.processor.logging.HotLogRecord;
+import com.price.processor.logging.HotLogSite;
 import com.price.processor.model.CcyPair;
+import com.price.processor.model.CurrencyTable;
 import javax.money.CurrencyUnit;
 import javax.money.Monetary;
 import javax.money.UnknownCurrencyException;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
+import org.slf4j.event.Level;
 
 @Slf4j
 public abstract class CurrencyUtil {
+	private static final HotLogSite CONVERTING_PAIR = HotLog.site(
+		log, "currency-pair-conversion", Level.DEBUG, "Converting codePair '{}' to CurrPair"
+	);
+
 	/**
-	 * Converts a single currencyCode (e.g. 'USD' or 'RUB' etc.) to a {@link CurrencyUnit}.
+	 * Forces Moneta to load its currency providers, so it's not done lazily by the first conversion.
+	 */
+	public static void preload() {
+		final long start = System.currentTimeMillis();
+		final int currencies = Monetary.getCurrencies().size();
+		log.info("Preloaded {} currencies in {} ms, {} currencies in the currency table",
+			currencies, System.currentTimeMillis() - start, CurrencyTable.current().size());
+	}
+
+	/**
+	 * Converts a pair of currency codes (e.g. 'EURUSD') to a {@link CcyPair}. Doesn't touch Moneta.
 	 *
 	 * @param codePair pair of codes, e.g. 'EURUSD', 'CADRUB', consisting of 2 ISO abbrevations.
-	 * @return CurrencyUnit object
+	 * @return CcyPair object
 	 * @throws ApplicationErrorException on error
 	 */
 	public static @NotNull
 	CcyPair codePairToCurrPair(@NotNull String codePair) throws ApplicationErrorException {
-		log.debug("Converting codePair '{}' to CurrPair", codePair);
-		String[] codes = codePair.split("(?<=\\G...)");
-		if (codes.length != 2) {
+		final HotLogRecord record = CONVERTING_PAIR.begin();
+		if (record != null) {
+			record.arg(codePair).publish();
+		}
+
+		if (codePair.length() != CurrencyTable.CODE_LENGTH * 2) {
 			throw new ApplicationErrorException(
-				String.format("Invalid codePair '%s' received, number of codes provided: %s", codePair, codes.length)
+				String.format("Invalid codePair '%s' received, expected 2 codes of %s letters", codePair, CurrencyTable.CODE_LENGTH)
 			);
 		}
 
-		CurrencyUnit currencyUnitOne = currencyCodeToCurrencyUnit(codes[0]);
-		CurrencyUnit currencyUnitTwo = currencyCodeToCurrencyUnit(codes[1]);
+		final CurrencyTable table = CurrencyTable.current();
+		final int base = table.indexOf(codePair, 0);
+		final int quote = table.indexOf(codePair, CurrencyTable.CODE_LENGTH);
+		if (base == CurrencyTable.UNKNOWN || quote == CurrencyTable.UNKNOWN) {
+			final String errMsg = String.format("Unknown currency in codePair '%s'", codePair);
+			log.error(errMsg);
+
+			throw new ApplicationErrorException(errMsg);
+		}
+
+		return new CcyPair(base, quote);
+	}
 
-		return new CcyPair(currencyUnitOne, currencyUnitTwo);
+	/**
+	 * Converts a {@link CurrencyTable} index to a Moneta {@link CurrencyUnit}, for the code that needs monetary
+	 * arithmetic.
+	 *
+	 * @param currencyIndex index in {@link CurrencyTable#current()}
+	 * @return CurrencyUnit object
+	 */
+	public static @NotNull CurrencyUnit toCurrencyUnit(int currencyIndex) {
+		return Monetary.getCurrency(CurrencyTable.current().code(currencyIndex));
 	}
 
 	/**
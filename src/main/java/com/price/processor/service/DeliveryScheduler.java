@@ -0,0 +1,336 @@
+package com.price.processor.service;
+
+import com.price.processor.config.PriceThrottlerConfig;
+import com.price.processor.logging.HotLog;
+import com.price.processor.logging.HotLogRecord;
+import com.price.processor.logging.HotLogSite;
+import com.price.processor.model.SubscriberTier;
+import com.price.processor.model.dto.TierStats;
+import com.price.processor.time.TimeSource;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.event.Level;
+
+/**
+ * Hands the subscriptions with pending rates to a bounded set of delivery workers.
+ * <p>
+ * Within a tier it's a deficit round-robin: a subscription gets a quantum of {@code weight} deliveries per turn (a
+ * batch counts as one) and goes to the back of the queue if it still has pending rates. As every delivery costs the
+ * same, the deficit never carries over and it reduces to a weighted round-robin.
+ * <p>
+ * Between the tiers the higher one wins, except when the head of some tier has waited longer than its latency
+ * objective: then the most overdue tier, relative to its objective, is served first, so no tier starves. A tier
+ * never occupies more than its max workers, so slow subscribers of a lower tier can't take all the workers.
+ * <p>
+ * A drain running longer than the soft timeout stops counting against its tier, and a replacement worker is started
+ * for it, up to {@code max-overrun-workers} at a time. So subscribers that take minutes per rate never hold the workers
+ * of the fast ones, even if there are more of them than workers. The overrunning worker exits once its drain is over.
+ */
+@Slf4j
+class DeliveryScheduler {
+	private static final HotLogSite OBJECTIVE_MISSED = HotLog.site(
+		log, "latency-objective-missed", Level.WARN, "{} subscriber {} waited {} ms for a worker, the objective is {} ms"
+	).maxPerSecond(1);
+	private static final HotLogSite OVERRUN = HotLog.site(
+		log, "delivery-overrun", Level.WARN, "{} subscriber {} has been draining for {} ms, starting a replacement worker"
+	).maxPerSecond(1);
+
+	/**
+	 * Delivers up to {@code credit} pending rates of the subscription.
+	 */
+	interface Drain {
+		/**
+		 * @return {@code true} if the subscription still has pending rates
+		 */
+		boolean run(Subscription subscription, int credit);
+	}
+
+	/**
+	 * Load of the workers at a moment, see {@link OverloadController}.
+	 *
+	 * @param lag longest wait of a queued subscription relative to the latency objective of its tier
+	 */
+	record Load(int busyWorkers, int queued, double lag) {
+	}
+
+	private final Drain drain;
+	private final TimeSource timeSource;
+	private final SubscriberTier[] tiers = SubscriberTier.values();
+	private final ArrayDeque<Subscription>[] queues;
+	private final long[] latencyObjectiveMs;
+	private final int[] maxWorkers;
+	private final int[] busyWorkers;
+	private final long[] objectiveMisses;
+	// Workers draining longer than the soft timeout, they don't count as busy
+	private final int[] overrunWorkers;
+	private final int maxOverrunWorkers;
+	// Guarded by the lock, grows and shrinks with the overrunning workers
+	private final List<Worker> workers = new ArrayList<>();
+	private int nextWorkerIndex;
+	private final ReentrantLock lock = new ReentrantLock();
+	private final TimeSource.Condition ready;
+	private volatile boolean running = true;
+
+	@SuppressWarnings("unchecked")
+	DeliveryScheduler(PriceThrottlerConfig config, TimeSource timeSource, Drain drain) {
+		this.drain = drain;
+		this.timeSource = timeSource;
+		this.ready = timeSource.newCondition(lock);
+		this.queues = (ArrayDeque<Subscription>[]) new ArrayDeque<?>[tiers.length];
+		this.latencyObjectiveMs = new long[tiers.length];
+		this.maxWorkers = new int[tiers.length];
+		this.busyWorkers = new int[tiers.length];
+		this.objectiveMisses = new long[tiers.length];
+		this.overrunWorkers = new int[tiers.length];
+		this.maxOverrunWorkers = config.getMaxOverrunWorkers();
+		for (SubscriberTier tier : tiers) {
+			queues[tier.ordinal()] = new ArrayDeque<>();
+			latencyObjectiveMs[tier.ordinal()] = config.latencyObjective(tier).toMillis();
+			maxWorkers[tier.ordinal()] = config.maxWorkers(tier);
+		}
+
+		for (int i = 0; i < config.getWorkers(); i++) {
+			workers.add(newWorker());
+		}
+	}
+
+	void start() {
+		lock.lock();
+		try {
+			workers.forEach(worker -> worker.thread.start());
+			log.info("Started {} delivery workers", workers.size());
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	void shutdown() {
+		running = false;
+		lock.lock();
+		try {
+			workers.forEach(worker -> worker.thread.interrupt());
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Queues a subscription that has just been scheduled, it must not be queued or draining already.
+	 */
+	void enqueue(Subscription subscription, long now) {
+		lock.lock();
+		try {
+			subscription.setReadySince(now);
+			queues[subscription.getTier().ordinal()].addLast(subscription);
+			ready.signal();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	TierStats stats(SubscriberTier tier) {
+		final int i = tier.ordinal();
+		lock.lock();
+		try {
+			return new TierStats(
+				latencyObjectiveMs[i], maxWorkers[i], busyWorkers[i], overrunWorkers[i], queues[i].size(), objectiveMisses[i]
+			);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	Load load(long now) {
+		lock.lock();
+		try {
+			int busy = 0;
+			int queued = 0;
+			double lag = 0.0D;
+			for (int tier = 0; tier < tiers.length; tier++) {
+				busy += busyWorkers[tier];
+				queued += queues[tier].size();
+				if (!queues[tier].isEmpty()) {
+					lag = Math.max(lag, waited(tier, now));
+				}
+			}
+
+			return new Load(busy, queued, lag);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Releases the tier workers held by the drains that have been running longer than the soft timeout, each gets a
+	 * replacement worker while there are less than {@code max-overrun-workers} of them. Called by the watchdog.
+	 */
+	void checkOverruns(long now, long softTimeoutMs) {
+		lock.lock();
+		try {
+			for (int i = 0; i < workers.size(); i++) {
+				final Worker worker = workers.get(i);
+				if (worker.subscription == null || worker.overrun || now - worker.drainStart <= softTimeoutMs) {
+					continue;
+				}
+				if (Arrays.stream(overrunWorkers).sum() >= maxOverrunWorkers) {
+					return;
+				}
+
+				final int tier = worker.subscription.getTier().ordinal();
+				worker.overrun = true;
+				busyWorkers[tier]--;
+				overrunWorkers[tier]++;
+				final Worker replacement = newWorker();
+				workers.add(replacement);
+				replacement.thread.start();
+				final HotLogRecord record = OVERRUN.begin();
+				if (record != null) {
+					record.arg(tiers[tier]).arg(worker.subscription.getUuid()).arg(now - worker.drainStart).publish();
+				}
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private Worker newWorker() {
+		final Worker worker = new Worker();
+		worker.thread = timeSource.newThread(() -> work(worker), "price-delivery-" + nextWorkerIndex++);
+
+		return worker;
+	}
+
+	private void work(Worker worker) {
+		while (running) {
+			final Subscription subscription;
+			try {
+				subscription = next(worker);
+			} catch (InterruptedException e) {
+				break;
+			}
+
+			boolean pending = false;
+			try {
+				pending = drain.run(subscription, subscription.getWeight());
+			} catch (RuntimeException e) {
+				log.error("Delivery to {} failed", subscription.getUuid(), e);
+				pending = subscription.yieldTurn();
+			} finally {
+				if (!finished(worker, subscription, pending)) {
+					break;
+				}
+			}
+		}
+	}
+
+	private Subscription next(Worker worker) throws InterruptedException {
+		lock.lock();
+		try {
+			while (true) {
+				final long now = timeSource.currentTimeMillis();
+				final int tier = select(now);
+				if (tier >= 0) {
+					final Subscription subscription = queues[tier].pollFirst();
+					busyWorkers[tier]++;
+					worker.subscription = subscription;
+					worker.drainStart = now;
+					checkObjective(subscription, now);
+
+					return subscription;
+				}
+				ready.await();
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private int select(long now) {
+		int overdue = -1;
+		double worst = 1.0D;
+		for (int tier = 0; tier < tiers.length; tier++) {
+			if (!eligible(tier)) {
+				continue;
+			}
+
+			final double waited = waited(tier, now);
+			if (waited > worst) {
+				worst = waited;
+				overdue = tier;
+			}
+		}
+		if (overdue >= 0) {
+			return overdue;
+		}
+
+		for (int tier = 0; tier < tiers.length; tier++) {
+			if (eligible(tier)) {
+				return tier;
+			}
+		}
+
+		return -1;
+	}
+
+	// Wait of the head of the tier queue relative to the objective
+	private double waited(int tier, long now) {
+		return (double) (now - queues[tier].peekFirst().getReadySince()) / Math.max(1L, latencyObjectiveMs[tier]);
+	}
+
+	private boolean eligible(int tier) {
+		return !queues[tier].isEmpty() && busyWorkers[tier] < maxWorkers[tier];
+	}
+
+	private void checkObjective(Subscription subscription, long now) {
+		final int tier = subscription.getTier().ordinal();
+		final long waited = now - subscription.getReadySince();
+		if (waited <= latencyObjectiveMs[tier]) {
+			return;
+		}
+
+		objectiveMisses[tier]++;
+		final HotLogRecord record = OBJECTIVE_MISSED.begin();
+		if (record != null) {
+			record.arg(tiers[tier]).arg(subscription.getUuid()).arg(waited).arg(latencyObjectiveMs[tier]).publish();
+		}
+	}
+
+	/**
+	 * @return {@code false} if the worker has to exit, it has been replaced while overrunning
+	 */
+	private boolean finished(Worker worker, Subscription subscription, boolean pending) {
+		lock.lock();
+		try {
+			final int tier = subscription.getTier().ordinal();
+			worker.subscription = null;
+			if (worker.overrun) {
+				overrunWorkers[tier]--;
+				workers.remove(worker);
+			} else {
+				busyWorkers[tier]--;
+			}
+			if (pending) {
+				subscription.setReadySince(timeSource.currentTimeMillis());
+				queues[tier].addLast(subscription);
+			}
+			// A worker slot of the tier is free now, or there's a subscription to serve
+			ready.signal();
+
+			return !worker.overrun;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	// Guarded by the lock, except the thread
+	private static final class Worker {
+		private Thread thread;
+		private Subscription subscription;
+		private long drainStart;
+		private boolean overrun;
+	}
+}
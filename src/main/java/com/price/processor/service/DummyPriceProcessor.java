@@ -1,9 +1,17 @@
 package com.price.processor.service;
 
+import com.price.processor.logging.HotLog;
+import com.price.processor.logging.HotLogRecord;
+import com.price.processor.logging.HotLogSite;
 import lombok.extern.slf4j.Slf4j;
+import org.slf4j.event.Level;
 
 @Slf4j
 public class DummyPriceProcessor implements PriceProcessor {
+	private static final HotLogSite PROCESSING = HotLog.site(
+		log, "dummy-processing", Level.INFO, "Processing ccyPair '{}', rate '{}', operationTime '{}'"
+	);
+
 	private long operationTimeMs;
 
 	public DummyPriceProcessor(long operationTimeMs) {
@@ -11,7 +19,11 @@ public class DummyPriceProcessor implements PriceProcessor {
 	}
 
 	public void onPrice(String ccyPair, double rate) {
-		log.info("Processing ccyPair '{}', rate '{}', operationTime '{}'", ccyPair, rate, operationTimeMs);
+		final HotLogRecord record = PROCESSING.begin();
+		if (record != null) {
+			record.arg(ccyPair).arg(rate).arg(operationTimeMs).publish();
+		}
+
 		try {
 			Thread.sleep(operationTimeMs);
 		} catch (InterruptedException e) {
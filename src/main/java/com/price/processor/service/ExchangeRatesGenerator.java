@@ -4,121 +4,221 @@ import com.price.processor.config.GeneratorConfig;
 import com.price.processor.event.ExchangeRatesChangedEvent;
 import com.price.processor.exception.ApplicationErrorException;
 import com.price.processor.model.CcyPair;
+import com.price.processor.model.CurrencyTable;
 import com.price.processor.model.dto.json.JsonExchEntry;
+import com.price.processor.time.TimeSource;
 import java.io.IOException;
+import java.io.Serial;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.Random;
-import java.util.concurrent.CompletableFuture;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.annotation.PostConstruct;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.ApplicationEventPublisher;
-import org.springframework.core.io.Resource;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
+/**
+ * Generates a tick of every pair once per linger and publishes the changed rates.
+ * <p>
+ * Large universes are split into chunks of {@code chunk-size} pairs, generated and published by fork-join workers in
+ * parallel, so the listeners get the events from several threads at once. Every pair belongs to one chunk and the
+ * ticks don't overlap, so the rates of a pair are still published in order.
+ * <p>
+ * Started and stopped with the application context, after and before the other beans.
+ */
 @Service
+@Lazy(false)
+@ConditionalOnProperty(prefix = "com.price.processor.generator", name = "enabled", havingValue = "true", matchIfMissing = true)
 @RequiredArgsConstructor
 @Slf4j
-public class ExchangeRatesGenerator {
+public class ExchangeRatesGenerator implements SmartLifecycle {
+	private static final long STOP_TIMEOUT_MS = 5000L;
+
 	private final GeneratorConfig config;
 	private final JsonService jsonService;
-	private final Random random = new Random();
-	private Map<CcyPair, JsonExchEntry> entryMap;
+	private final TimeSource timeSource;
+	private final CurrencyTable currencyTable;
+	// Pair universe, the arrays are indexed alike
+	private CcyPair[] pairs;
+	private double[] baseRates;
+	// Last generated rates, written by the chunk of the pair only
+	private double[] rates;
 	@Getter
-	private Map<CcyPair, Double> lastGeneratedRates = new HashMap<>();
+	private volatile Map<CcyPair, Double> lastGeneratedRates = Map.of();
+
+	private volatile ForkJoinPool pool;
+	private volatile Thread thread;
+	// Cleared only once the tick in progress is over and the pool is shut down
+	private volatile boolean running;
 
 	@Autowired
 	private ApplicationEventPublisher eventPublisher;
 
 	@PostConstruct
-	public void init() throws IOException, ApplicationErrorException, InterruptedException {
+	public void init() throws IOException, ApplicationErrorException {
 		List<JsonExchEntry> entries = jsonService.readJsonExchangeEntries(config.getResourceFile());
+		final Map<CcyPair, Double> universe = new LinkedHashMap<>();
 		for (JsonExchEntry entry : entries) {
-			CurrencyUtil.codePairToCurrPair(entry.getPair());
+			universe.put(CurrencyUtil.codePairToCurrPair(entry.getPair()), calculateRate(entry.getBid(), entry.getAsk()));
 		}
-		entryMap = entries
-			.stream()
-			.collect(Collectors.toMap(
-				e -> {
-					try {
-						return CurrencyUtil.codePairToCurrPair(e.getPair());
-					} catch (ApplicationErrorException ex) {
-						return new CcyPair(null, null);
-					}
-				},
-				Function.identity()
-			));
-
-		CompletableFuture.supplyAsync(() -> {
-			try {
-				return run();
-			} catch (InterruptedException e) {
-				return null;
-			}
-		});
+		addSyntheticPairs(universe, universe.size() + config.getSyntheticPairs());
+
+		pairs = universe.keySet().toArray(new CcyPair[0]);
+		baseRates = universe.values().stream().mapToDouble(Double::doubleValue).toArray();
+		rates = new double[pairs.length];
+		// Never equal to a generated rate, so the first tick publishes every pair
+		Arrays.fill(rates, Double.NaN);
+	}
+
+	@Override
+	public void start() {
+		final AtomicInteger workerIndex = new AtomicInteger();
+		pool = new ForkJoinPool(config.getParallelism(), p -> {
+			final ForkJoinWorkerThread worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+			worker.setName("rates-generator-" + workerIndex.getAndIncrement());
+
+			return worker;
+		}, null, false);
+		// The rates are there once the context is up
+		generateExchangeRates();
+
+		final Thread generatorThread = timeSource.newThread(this::run, "rates-generator");
+		thread = generatorThread;
+		running = true;
+		generatorThread.start();
+		log.info("Rates generator has been started: {} pairs, parallelism {}", pairs.length, config.getParallelism());
+	}
+
+	@Override
+	public void stop() {
+		final Thread generatorThread = thread;
+		if (generatorThread == null) {
+			return;
+		}
+
+		thread = null;
+		generatorThread.interrupt();
+		try {
+			// Lets the tick in progress publish its chunks
+			generatorThread.join(STOP_TIMEOUT_MS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		pool.shutdown();
+		running = false;
+		log.info("Rates generator has been stopped");
+	}
+
+	@Override
+	public boolean isRunning() {
+		return running;
 	}
 
-	public Void run() throws InterruptedException {
-		while (true) {
-			Thread.sleep(config.getLinger().toMillis());
-			generateExchangeRates();
+	private void run() {
+		try {
+			while (true) {
+				timeSource.sleep(config.getLinger().toMillis());
+				generateExchangeRates();
+			}
+		} catch (InterruptedException e) {
+			log.debug("Rates generator thread has been interrupted");
 		}
 	}
 
-	public Map<CcyPair, Double> generateExchangeRates() {
+	public synchronized Map<CcyPair, Double> generateExchangeRates() {
 		log.debug("tick");
-		Map<CcyPair, Double> previousRates = new HashMap<>(lastGeneratedRates);
-		lastGeneratedRates = entryMap.entrySet()
-			.stream()
-			.collect(Collectors.toMap(
-					Entry::getKey,
-					e -> {
-						if (!chance()) {
-							return calculateRate(e.getValue().getBid(), e.getValue().getAsk());
-						} else {
-							return calculateRate(e.getValue().getBid(), e.getValue().getAsk()) + random.nextDouble(5.0D);
-						}
-					}
-				)
-			);
-
-		Map<CcyPair, Double> changedRates =
-			lastGeneratedRates.entrySet()
-				.stream()
-				.filter(e -> {
-					if (previousRates.containsKey(e.getKey())) {
-						return !previousRates.get(e.getKey()).equals(e.getValue());
-					} else {
-						return true;
-					}
-				})
-				.collect(Collectors.toMap(
-						Entry::getKey,
-						Entry::getValue
-					)
-				);
+		final ForkJoinPool workers = pool;
+		if (pairs.length <= config.getChunkSize() || workers == null || workers.isShutdown()) {
+			generate(0, pairs.length);
+		} else {
+			workers.invoke(new Chunk(0, pairs.length));
+		}
+
+		final Map<CcyPair, Double> generatedRates = new HashMap<>(pairs.length * 4 / 3 + 1);
+		for (int i = 0; i < pairs.length; i++) {
+			generatedRates.put(pairs[i], rates[i]);
+		}
+		lastGeneratedRates = generatedRates;
+
+		return generatedRates;
+	}
+
+	private void generate(int from, int to) {
+		final ThreadLocalRandom random = ThreadLocalRandom.current();
+		final Map<CcyPair, Double> changedRates = new HashMap<>();
+		for (int i = from; i < to; i++) {
+			final double rate = chance(random) ? baseRates[i] + random.nextDouble(5.0D) : baseRates[i];
+			if (rate != rates[i]) {
+				rates[i] = rate;
+				changedRates.put(pairs[i], rate);
+			}
+		}
 
 		if (!changedRates.isEmpty()) {
 			eventPublisher.publishEvent(new ExchangeRatesChangedEvent(this, changedRates));
 		}
+	}
+
+	private void addSyntheticPairs(Map<CcyPair, Double> universe, int size) {
+		final ThreadLocalRandom random = ThreadLocalRandom.current();
+		for (int base = 0; base < currencyTable.size() && universe.size() < size; base++) {
+			for (int quote = 0; quote < currencyTable.size() && universe.size() < size; quote++) {
+				if (base != quote) {
+					// Around the template rates, they are all close to 100
+					universe.putIfAbsent(new CcyPair(base, quote), 100.0D + random.nextDouble());
+				}
+			}
+		}
 
-		return lastGeneratedRates;
+		if (universe.size() < size) {
+			log.warn("Only {} pairs can be made of {} currencies", universe.size(), currencyTable.size());
+		}
 	}
 
 	private Double calculateRate(Double bid, Double ask) {
 		return (ask / bid) * 100;
 	}
 
-	private boolean chance() {
+	private boolean chance(ThreadLocalRandom random) {
 		double d = random.nextDouble() * 100.0D;
 		return d < config.getChance();
 	}
+
+	private final class Chunk extends RecursiveAction {
+		@Serial
+		private static final long serialVersionUID = 1L;
+
+		private final int from;
+		private final int to;
+
+		Chunk(int from, int to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= config.getChunkSize()) {
+				generate(from, to);
+
+				return;
+			}
+
+			final int middle = (from + to) >>> 1;
+			invokeAll(new Chunk(from, middle), new Chunk(middle, to));
+		}
+	}
 }
@@ -3,44 +3,68 @@ package com.price.processor.service;
 import com.price.processor.config.ExchangeRatesConfig;
 import com.price.processor.event.ExchangeRatesChangedEvent;
 import com.price.processor.model.CcyPair;
-import java.util.HashMap;
+import com.price.processor.time.TimeSource;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
+/**
+ * Tracks when every pair has last changed. Events may come from several producer threads at once, the last rate and
+ * the change times of a pair are replaced together in a concurrent map.
+ * <p>
+ * The monitor and the {@link PriceThrottler} listen to the same events, in whatever order the context calls them. So
+ * the change time before the last one is kept too: the throttler asks {@link #onRate} whether a tick is rare, and the
+ * answer is the same whether the monitor has seen the tick already or not.
+ */
 @Service
+@Lazy(false)
 @RequiredArgsConstructor
 @Slf4j
 public class ExchangeRatesMonitor implements ApplicationListener<ExchangeRatesChangedEvent> {
 	private final ExchangeRatesConfig config;
-	private Map<CcyPair, Double> snapshot = new HashMap<>();
-	private Map<CcyPair, Long> lastChangedTimestamp = new HashMap<>();
+	private final TimeSource timeSource;
+	// Read by the subscribing threads too, see PriceThrottler.subscribe
+	private final Map<CcyPair, Change> changes = new ConcurrentHashMap<>();
 
 	@Override
 	public void onApplicationEvent(ExchangeRatesChangedEvent event) {
 		log.debug("Received ExchangeRatesGenerationEvent");
-		final Map<CcyPair, Double> rates = event.getRates();
-		rates.forEach(
-			(eventPair, eventRate) -> {
-				if (!snapshot.containsKey(eventPair)) {
-					lastChangedTimestamp.put(eventPair, System.currentTimeMillis());
-				} else {
-					final Double rate = snapshot.get(eventPair);
-					if (!rate.equals(eventRate)) {
-						lastChangedTimestamp.put(eventPair, System.currentTimeMillis());
-					}
-				}
+		event.getRates().forEach(this::onRate);
+	}
+
+	/**
+	 * Records the rate of a tick unless it's recorded already, by the listener that has seen the tick first.
+	 *
+	 * @return {@code true} if the pair hadn't changed for longer than the rare threshold before this rate
+	 */
+	public boolean onRate(CcyPair ccyPair, double rate) {
+		final long now = timeSource.currentTimeMillis();
+		final Change change = changes.compute(ccyPair, (pair, last) -> {
+			if (last == null) {
+				return new Change(rate, now, Change.NEVER);
 			}
-		);
+
+			return last.rate() == rate ? last : new Change(rate, now, last.changedAt());
+		});
+
+		return change.previousChangedAt() != Change.NEVER
+			&& change.changedAt() - change.previousChangedAt() > config.getRareChangingThreshold().toMillis();
 	}
 
+	/**
+	 * @return {@code true} if the pair hasn't changed for longer than the rare threshold by now
+	 */
 	public boolean isRare(CcyPair ccyPair) {
-		if (lastChangedTimestamp.containsKey(ccyPair)) {
-			return System.currentTimeMillis() - lastChangedTimestamp.get(ccyPair) > config.getRareChangingThreshold().toMillis();
-		}
+		final Change change = changes.get(ccyPair);
+
+		return change != null && timeSource.currentTimeMillis() - change.changedAt() > config.getRareChangingThreshold().toMillis();
+	}
 
-		return false;
+	private record Change(double rate, long changedAt, long previousChangedAt) {
+		static final long NEVER = Long.MIN_VALUE;
 	}
 }
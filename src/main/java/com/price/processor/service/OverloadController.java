@@ -0,0 +1,203 @@
+package com.price.processor.service;
+
+import com.price.processor.config.PriceThrottlerConfig;
+import com.price.processor.model.OverloadState;
+import com.price.processor.model.dto.OverloadStats;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Control loop that degrades the {@link PriceThrottler} on purpose when the delivery workers can't keep up, instead of
+ * letting every subscriber fall behind.
+ * <p>
+ * Every period it looks at the worker utilization, the queued subscriptions and their lag against the tier latency
+ * objectives. It's under pressure if some tier is late or all the workers are busy with a full round of subscriptions
+ * queued behind them. Under pressure it goes up one level, after a calm recovery interval it goes back down one level:
+ * <ul>
+ * <li>the first levels ({@link OverloadState#DEGRADED}) halve the soft timeout, down to the minimum</li>
+ * <li>the next levels ({@link OverloadState#SATURATED}) coalesce the ticks of non-rare pairs at the source: a pair is
+ * fanned out to the subscribers at most once per conflation interval, which doubles with every level up to the maximum.
+ * The interval never exceeds the latency objective of the most demanding subscribed tier, so the fast subscribers are
+ * not made late on behalf of the slow ones.
+ * The latest rate table is still updated on every tick, the last coalesced rate is fanned out by {@link #flush}</li>
+ * </ul>
+ * Rare ticks are never coalesced and preempt as usual, so the rare pair guarantee doesn't depend on the load.
+ */
+@Slf4j
+class OverloadController {
+	// Levels of DEGRADED before the ticks are coalesced
+	private static final int DEGRADED_LEVELS = 3;
+	// Below this lag and the utilization watermark the load counts as calm
+	private static final double CALM_LAG = 0.5D;
+
+	private final PriceThrottlerConfig throttlerConfig;
+	private final PriceThrottlerConfig.Overload config;
+	private final long minIntervalMs;
+	private final long maxIntervalMs;
+	private final long recoveryMs;
+	private final int workers;
+	private final int maxLevel;
+	// Last time a coalescable tick of the pair was fanned out
+	private final AtomicLongArray lastFanOut;
+	// Pairs with a coalesced tick that hasn't been fanned out yet
+	private final AtomicLongArray coalesced;
+	private final LongAdder coalescedTicks = new LongAdder();
+
+	// Control state, written by the control thread only
+	private volatile int level;
+	private long calmSince;
+	private long intervalCapMs = Long.MAX_VALUE;
+	private volatile DeliveryScheduler.Load load = new DeliveryScheduler.Load(0, 0, 0.0D);
+
+	private volatile long conflationIntervalMs;
+
+	OverloadController(PriceThrottlerConfig config, int capacity) {
+		this.throttlerConfig = config;
+		this.config = config.getOverload();
+		this.minIntervalMs = Math.max(1L, this.config.getConflationInterval().toMillis());
+		this.maxIntervalMs = Math.max(minIntervalMs, this.config.getMaxConflationInterval().toMillis());
+		this.recoveryMs = this.config.getRecovery().toMillis();
+		this.workers = config.getWorkers();
+
+		int steps = 1;
+		while ((minIntervalMs << (steps - 1)) < maxIntervalMs) {
+			steps++;
+		}
+		this.maxLevel = DEGRADED_LEVELS + steps;
+
+		this.lastFanOut = new AtomicLongArray(capacity);
+		this.coalesced = new AtomicLongArray((capacity + Long.SIZE - 1) / Long.SIZE);
+	}
+
+	/**
+	 * @return configured soft timeout shortened according to the load, never below the minimum
+	 */
+	long getSoftTimeoutMs() {
+		final long softTimeoutMs = throttlerConfig.getSoftTimeout().toMillis();
+		final int shift = Math.min(level, DEGRADED_LEVELS);
+
+		return shift == 0 ? softTimeoutMs : Math.max(Math.min(softTimeoutMs, config.getMinSoftTimeout().toMillis()), softTimeoutMs >> shift);
+	}
+
+	/**
+	 * Called on every non-rare tick, safe to call from several publishing threads.
+	 *
+	 * @return {@code true} if the tick must not be fanned out now, {@link #flush} will do it
+	 */
+	boolean coalesce(int pairId, long now) {
+		final long interval = conflationIntervalMs;
+		if (interval == 0L) {
+			return false;
+		}
+		if (now - lastFanOut.get(pairId) >= interval) {
+			lastFanOut.set(pairId, now);
+
+			return false;
+		}
+
+		final int word = pairId >>> 6;
+		final long mask = 1L << pairId;
+		long bits = coalesced.get(word);
+		while ((bits & mask) == 0L && !coalesced.compareAndSet(word, bits, bits | mask)) {
+			bits = coalesced.get(word);
+		}
+		coalescedTicks.increment();
+
+		return true;
+	}
+
+	/**
+	 * Fans out the coalesced pairs whose conflation interval is over, all of them once the throttler has recovered.
+	 * The bit is cleared before the fan-out reads the latest rate, so a tick coalesced meanwhile is never lost.
+	 */
+	void flush(long now, IntConsumer fanOut) {
+		final long interval = conflationIntervalMs;
+		for (int word = 0; word < coalesced.length(); word++) {
+			long bits = coalesced.get(word);
+			while (bits != 0L) {
+				final int pairId = word * Long.SIZE + Long.numberOfTrailingZeros(bits);
+				bits &= bits - 1;
+				if (now - lastFanOut.get(pairId) < interval) {
+					continue;
+				}
+
+				final long mask = 1L << pairId;
+				long current = coalesced.get(word);
+				while (!coalesced.compareAndSet(word, current, current & ~mask)) {
+					current = coalesced.get(word);
+				}
+				lastFanOut.set(pairId, now);
+				fanOut.accept(pairId);
+			}
+		}
+	}
+
+	/**
+	 * One step of the control loop.
+	 *
+	 * @param intervalCapMs the longest conflation interval the subscribers can take
+	 */
+	void update(DeliveryScheduler.Load load, long intervalCapMs, long now) {
+		this.load = load;
+		if (!config.isEnabled()) {
+			return;
+		}
+		if (intervalCapMs != this.intervalCapMs) {
+			this.intervalCapMs = intervalCapMs;
+			apply(level);
+		}
+
+		final boolean busy = (double) load.busyWorkers() / workers >= config.getUtilization();
+		final int previous = level;
+		if (load.lag() > 1.0D || busy && load.queued() >= workers) {
+			level = Math.min(maxLevel, level + 1);
+			calmSince = 0L;
+		} else if (busy || load.lag() >= CALM_LAG) {
+			calmSince = 0L;
+		} else if (calmSince == 0L) {
+			calmSince = now;
+		} else if (level > 0 && now - calmSince >= recoveryMs) {
+			level--;
+			calmSince = now;
+		}
+
+		if (level != previous) {
+			apply(previous);
+		}
+	}
+
+	OverloadStats stats() {
+		final DeliveryScheduler.Load last = load;
+		final int current = level;
+
+		return new OverloadStats(state(current), current, (double) last.busyWorkers() / workers, last.queued(), last.lag(),
+			getSoftTimeoutMs(), conflationIntervalMs, coalescedTicks.sum());
+	}
+
+	private void apply(int previous) {
+		conflationIntervalMs = level > DEGRADED_LEVELS
+			? Math.max(1L, Math.min(intervalCapMs, Math.min(maxIntervalMs, minIntervalMs << (level - DEGRADED_LEVELS - 1))))
+			: 0L;
+
+		final OverloadState state = state(level);
+		if (state != state(previous)) {
+			if (state == OverloadState.NORMAL) {
+				log.info("Throttler load is back to normal, coalesced {} ticks", coalescedTicks.sum());
+			} else {
+				log.warn("Throttler is {}: {}/{} workers busy, {} queued, lag {}", state, load.busyWorkers(), workers,
+					load.queued(), String.format("%.2f", load.lag()));
+			}
+		}
+		log.debug("Overload level {}, soft timeout {} ms, conflation interval {} ms", level, getSoftTimeoutMs(), conflationIntervalMs);
+	}
+
+	private static OverloadState state(int level) {
+		if (level == 0) {
+			return OverloadState.NORMAL;
+		}
+
+		return level <= DEGRADED_LEVELS ? OverloadState.DEGRADED : OverloadState.SATURATED;
+	}
+}
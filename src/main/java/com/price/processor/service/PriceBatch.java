@@ -0,0 +1,72 @@
+package com.price.processor.service;
+
+import com.price.processor.model.CcyPair;
+import com.price.processor.model.LatestRateTable;
+
+/**
+ * Reusable view over the conflated updates handed to a {@link BatchPriceProcessor} in one call. Rare pairs come
+ * first. Nothing is allocated per batch: the view and its pair names are owned by the throttler and are overwritten
+ * once {@link BatchPriceProcessor#onPrices(PriceBatch)} returns, so copy what has to be kept.
+ */
+public final class PriceBatch {
+	private final LatestRateTable pairs;
+	private final int[] pairIds;
+	private final double[] rates;
+	private final long[] versions;
+	private final boolean[] rare;
+	private int size;
+
+	PriceBatch(LatestRateTable pairs) {
+		this.pairs = pairs;
+		this.pairIds = new int[pairs.capacity()];
+		this.rates = new double[pairs.capacity()];
+		this.versions = new long[pairs.capacity()];
+		this.rare = new boolean[pairs.capacity()];
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return dense pair id, the same one the shared price table uses as a slot
+	 */
+	public int pairId(int i) {
+		return pairIds[i];
+	}
+
+	public CcyPair pair(int i) {
+		return pairs.pair(pairIds[i]);
+	}
+
+	/**
+	 * @return pair name like 'EURUSD'
+	 */
+	public String ccyPair(int i) {
+		return pairs.name(pairIds[i]);
+	}
+
+	public double rate(int i) {
+		return rates[i];
+	}
+
+	public boolean isRare(int i) {
+		return rare[i];
+	}
+
+	long version(int i) {
+		return versions[i];
+	}
+
+	void add(int pairId, double rate, long version, boolean isRare) {
+		pairIds[size] = pairId;
+		rates[size] = rate;
+		versions[size] = version;
+		rare[size] = isRare;
+		size++;
+	}
+
+	void clear() {
+		size = 0;
+	}
+}
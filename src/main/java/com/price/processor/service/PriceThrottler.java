@@ -1,27 +1,38 @@
 package com.price.processor.service;
 
-import com.google.common.collect.HashMultimap;
-import com.google.common.collect.Multimap;
-import com.google.common.collect.Multimaps;
 import com.price.processor.config.PriceThrottlerConfig;
 import com.price.processor.event.ExchangeRatesChangedEvent;
+import com.price.processor.event.jfr.BatchDeliveryEvent;
+import com.price.processor.event.jfr.DeliveryEndEvent;
+import com.price.processor.event.jfr.ThrottlerEvents;
 import com.price.processor.exception.ApplicationErrorException;
-import com.price.processor.model.dto.Task;
-import java.util.HashMap;
-import java.util.LinkedList;
+import com.price.processor.ipc.SharedPriceTableWriter;
+import com.price.processor.logging.HotLog;
+import com.price.processor.logging.HotLogRecord;
+import com.price.processor.logging.HotLogSite;
+import com.price.processor.model.CcyPair;
+import com.price.processor.model.LatestRateTable;
+import com.price.processor.model.SubscriberTier;
+import com.price.processor.model.dto.OverloadStats;
+import com.price.processor.model.dto.TierStats;
+import com.price.processor.time.TimeSource;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.Nullable;
+import org.slf4j.event.Level;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
 /**
@@ -40,47 +51,102 @@ import org.springframework.stereotype.Service;
  * subscribers should not impact fast subscribers
  * <p>
  * In short words the purpose of PriceThrottler is to solve for slow consumers
+ * <p>
+ * Every subscriber has its own {@link Subscription} holding the last undelivered rate of every pair. A tick only
+ * overwrites that slot, and a single drain per subscriber delivers the pending slots one by one, or all at once to a
+ * {@link BatchPriceProcessor}. So a slow subscriber gets only the latest rates and never holds up the others.
+ * <p>
+ * Subscribers with pending rates share a bounded set of workers, see {@link DeliveryScheduler} for how the
+ * {@link SubscriberTier} and the weight of a subscriber are taken into account. When the workers fall behind, the
+ * {@link OverloadController} shortens the soft timeout and coalesces the hot pairs at the source.
  */
 @Service
+@Lazy(false)
 @Slf4j
 @RequiredArgsConstructor
 public class PriceThrottler implements PriceProcessor, ApplicationListener<ExchangeRatesChangedEvent> {
+	private static final HotLogSite TABLE_FULL = HotLog.site(
+		log, "latest-rates-full", Level.ERROR, "Pair '{}' doesn't fit into the latest rates table of {} pairs"
+	).maxPerSecond(1);
+	private static final long WATCHDOG_PERIOD_MS = 1000L;
 
 	private final PriceThrottlerConfig config;
 	private final ExchangeRatesMonitor monitor;
+	private final TimeSource timeSource;
 
 	// I wanted to use a PriorityQueue here, but there's no info in the PriceProcessor at all and we cannot sort it by the definition
 	@Getter
-	private List<PriceProcessor> subscribers = new LinkedList<>();
+	private final List<PriceProcessor> subscribers = new CopyOnWriteArrayList<>();
+	// Iterated by the publisher on every tick, so it's copied on the (rare) subscribe/unsubscribe instead
+	private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
 	// That's a workaround because we cannot change the PriceProcessor class at all and
 	// interface is already defined by the task definition
-	@Getter
-	private Map<PriceProcessor, UUID> subscriberIds = new HashMap<>();
+	private final Map<PriceProcessor, Subscription> subscriptionsByProcessor = new ConcurrentHashMap<>();
+	// Stable per-subscriber index, reported in the JFR events
+	private int nextSubscriberIndex = 0;
 
-	// Processor with it's running task that returns a future with operation start time
+	// Conflated last value of every pair, pair ids are assigned here
 	@Getter
-	private Multimap<PriceProcessor, Task> runningTasks = HashMultimap.create();
+	private LatestRateTable latestRates;
 
-	private ExecutorService threadPool;
+	// Co-located consumers read the latest rates from here, present only if enabled
+	@Autowired(required = false)
+	@Setter
+	private SharedPriceTableWriter sharedPriceTable;
+
+	private DeliveryScheduler scheduler;
+	private OverloadController overload;
+	private TimeSource.Task watchdog;
+	private TimeSource.Task overloadControl;
 
 	@PostConstruct
 	public void init() {
-		threadPool = Executors.newFixedThreadPool(config.getMaxSubscribers());
+		latestRates = new LatestRateTable(config.getMaxPairs());
+		scheduler = new DeliveryScheduler(config, timeSource, this::drain);
+		scheduler.start();
+		overload = new OverloadController(config, latestRates.capacity());
+
+		final long timeout = Math.min(config.getSoftTimeout().toMillis(), config.getHardTimeout().toMillis());
+		final long period = Math.max(1L, Math.min(timeout, WATCHDOG_PERIOD_MS));
+		watchdog = timeSource.scheduleAtFixedRate(this::checkTimeouts, period, period);
+		final long controlPeriod = Math.max(1L, config.getOverload().getPeriod().toMillis());
+		overloadControl = timeSource.scheduleAtFixedRate(this::controlOverload, controlPeriod, controlPeriod);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		watchdog.cancel();
+		overloadControl.cancel();
+		scheduler.shutdown();
 	}
 
 	public UUID getProcessorUUID(PriceProcessor processor) {
-		return subscriberIds.get(processor);
+		final Subscription subscription = subscriptionsByProcessor.get(processor);
+
+		return subscription != null ? subscription.getUuid() : null;
 	}
 
 	@Nullable
 	public PriceProcessor getProcessor(UUID uuid) {
-		return subscriberIds.entrySet()
-			.stream()
-			.filter(e -> e.getValue().equals(uuid))
-			.map(Entry::getKey)
+		return subscriptions.stream()
+			.filter(s -> s.getUuid().equals(uuid))
+			.map(Subscription::getProcessor)
 			.findFirst().orElse(null);
 	}
 
+	public Map<SubscriberTier, TierStats> getTierStats() {
+		final Map<SubscriberTier, TierStats> stats = new EnumMap<>(SubscriberTier.class);
+		for (SubscriberTier tier : SubscriberTier.values()) {
+			stats.put(tier, scheduler.stats(tier));
+		}
+
+		return stats;
+	}
+
+	public OverloadStats getOverloadStats() {
+		return overload.stats();
+	}
+
 	/**
 	 * Call from an upstream
 	 * <p>
@@ -91,24 +157,45 @@ public class PriceThrottler implements PriceProcessor, ApplicationListener<Excha
 	 */
 	@Override
 	public void onPrice(String ccyPair, double rate) {
-		log.info("onPrice called, {} subscribers, ccyPair '{}', rate '{}'", subscribers.size(), ccyPair, rate);
-		subscribers.forEach(subscriber -> {
-			if (runningTasks.containsKey(subscriber)) {
-				if (runningTasks.get(subscriber).stream().anyMatch(t -> t.getPair().toString().equals(ccyPair))) {
-					try {
-						handleAlreadyRunningTask(subscriber, ccyPair, rate);
-					} catch (ApplicationErrorException e) {
-						log.error("Error on handling already running task", e);
-					}
-				}
-			} else {
-				try {
-					sendTask(subscriber, ccyPair, rate);
-				} catch (ApplicationErrorException e) {
-					log.error("onPrice error", e);
-				}
+		try {
+			onPrice(CurrencyUtil.codePairToCurrPair(ccyPair), rate);
+		} catch (ApplicationErrorException e) {
+			log.error("onPrice error", e);
+		}
+	}
+
+	private void onPrice(CcyPair pair, double rate) {
+		final int pairId = latestRates.register(pair);
+		if (pairId == LatestRateTable.UNKNOWN) {
+			final HotLogRecord record = TABLE_FULL.begin();
+			if (record != null) {
+				record.arg(pair).arg(latestRates.capacity()).publish();
 			}
-		});
+
+			return;
+		}
+
+		final String ccyPair = latestRates.name(pairId);
+		ThrottlerEvents.tickIngest(pair, ccyPair, rate, subscriptions.size());
+
+		final long now = timeSource.currentTimeMillis();
+		final long version = latestRates.update(pairId, rate, now);
+		if (sharedPriceTable != null) {
+			sharedPriceTable.publish(pairId, pair.code(), rate, now, version);
+		}
+
+		final boolean rare = monitor.onRate(pair, rate);
+		if (!rare && overload.coalesce(pairId, now)) {
+			return;
+		}
+		fanOut(pair, ccyPair, pairId, rate, version, rare, now);
+	}
+
+	private void fanOut(CcyPair pair, String ccyPair, int pairId, double rate, long version, boolean rare, long now) {
+		final long softTimeoutMs = overload.getSoftTimeoutMs();
+		for (Subscription subscription : subscriptions) {
+			offer(subscription, pair, ccyPair, pairId, rate, version, rare, now, softTimeoutMs);
+		}
 	}
 
 	/**
@@ -120,17 +207,39 @@ public class PriceThrottler implements PriceProcessor, ApplicationListener<Excha
 	 */
 	@Override
 	public void subscribe(PriceProcessor priceProcessor) {
-		if (subscribers.size() >= config.getMaxSubscribers()) {
+		subscribe(priceProcessor, SubscriberTier.STANDARD, 1);
+	}
+
+	/**
+	 * Subscribe for updates with a priority
+	 *
+	 * @param priceProcessor price processor instance
+	 * @param tier           higher tiers get the delivery workers first
+	 * @param weight         share of the workers relative to the other subscribers of the tier, at least 1
+	 */
+	public synchronized void subscribe(PriceProcessor priceProcessor, SubscriberTier tier, int weight) {
+		if (subscriptions.size() >= config.getMaxSubscribers()) {
 			log.error("Subscribers limit of {} has been reached", config.getMaxSubscribers());
 
 			return;
 		}
+		if (subscriptionsByProcessor.containsKey(priceProcessor)) {
+			log.error("Processor is already subscribed");
+
+			return;
+		}
 
 		final UUID uuid = UUID.randomUUID();
-		log.info("Subscribing processor with UUID: {}", uuid);
+		log.info("Subscribing {} processor with UUID: {}, weight {}", tier, uuid, weight);
 
-		subscriberIds.put(priceProcessor, uuid);
+		final Subscription subscription = new Subscription(
+			priceProcessor, uuid, nextSubscriberIndex++, tier, Math.max(1, weight), latestRates
+		);
+		subscriptionsByProcessor.put(priceProcessor, subscription);
+		subscriptions.add(subscription);
 		subscribers.add(priceProcessor);
+
+		seed(subscription);
 	}
 
 	/**
@@ -141,18 +250,20 @@ public class PriceThrottler implements PriceProcessor, ApplicationListener<Excha
 	 * @param priceProcessor price processor instance
 	 */
 	@Override
-	public void unsubscribe(PriceProcessor priceProcessor) {
-		if (!subscriberIds.containsKey(priceProcessor)) {
+	public synchronized void unsubscribe(PriceProcessor priceProcessor) {
+		final Subscription subscription = subscriptionsByProcessor.remove(priceProcessor);
+		if (subscription == null) {
 			log.error("Processor is not in the subscribers list");
 
 			return;
 		}
 
-		final UUID uuid = subscriberIds.get(priceProcessor);
-		log.info("Unsubscribing processor with UUID: {}", uuid);
+		log.info("Unsubscribing processor with UUID: {}", subscription.getUuid());
 
+		// Pending updates are dropped, the delivery in flight (if any) is let to finish
+		subscription.close();
+		subscriptions.remove(subscription);
 		subscribers.remove(priceProcessor);
-		subscriberIds.remove(priceProcessor);
 	}
 
 	@Override
@@ -160,58 +271,155 @@ public class PriceThrottler implements PriceProcessor, ApplicationListener<Excha
 		return subscribers.stream().allMatch(PriceProcessor::cancel);
 	}
 
-	private void sendTask(PriceProcessor subscriber, String ccyPair, double rate) throws ApplicationErrorException {
-		final CompletableFuture<Boolean> future = CompletableFuture.supplyAsync(
-			() -> {
-				try {
-					subscriber.onPrice(ccyPair, rate);
-					return true;
-				} catch (Exception e) {
-					return false;
+	private void offer(Subscription subscription, CcyPair pair, String ccyPair, int pairId, double rate, long version,
+		boolean rare, long now, long softTimeoutMs) {
+		switch (subscription.offer(pairId, rate, version, rare, now, softTimeoutMs)) {
+			case SCHEDULE -> scheduler.enqueue(subscription, now);
+			case PREEMPT -> {
+				ThrottlerEvents.rarePreempt(pair, ccyPair, subscription.getIndex(), now - subscription.getInFlightStart());
+				// 'false' means the delivery has been aborted, its rates have to be delivered again
+				if (!subscription.getProcessor().cancel()) {
+					subscription.requeueInFlight();
 				}
-			},
-			threadPool
-		).thenApply((Boolean result) -> {
-			final Task task = runningTasks.get(subscriber)
-				.stream()
-				.filter(t -> t.getPair().toString().equals(ccyPair))
-				.findFirst().orElseThrow();
-			runningTasks.remove(subscriber, task);
-
-			return result;
-		});
-
-		Task task = new Task(CurrencyUtil.codePairToCurrPair(ccyPair), future, System.currentTimeMillis());
-
-		runningTasks.put(subscriber, task);
-	}
-
-	private void handleAlreadyRunningTask(PriceProcessor subscriber, String ccyPair, double rate)
-		throws ApplicationErrorException {
-		final UUID uuid = subscriberIds.get(subscriber);
-		final Task task = runningTasks.get(subscriber)
-			.stream()
-			.filter(t -> t.getPair().toString().equals(ccyPair))
-			.findFirst()
-			.orElseThrow();
-		if (monitor.isRare(CurrencyUtil.codePairToCurrPair(ccyPair))) {
-			log.info("Received a rare exchange rate task: {}", uuid);
-			subscriber.cancel();
-			task.getCompletableFuture().cancel(false);
-			sendTask(subscriber, ccyPair, rate);
-		} else {
-			if (task.getStartTime() > config.getSoftTimeout().toMillis()) {
-				log.info("Skipping a non-rare exchange rate change");
+			}
+			case SKIPPED -> {
+				ThrottlerEvents.skip(pair, ccyPair, subscription.getIndex(), now - subscription.getInFlightStart());
 				onSkip();
 			}
+			case CONFLATED -> ThrottlerEvents.conflate(pair, ccyPair, subscription.getIndex(), now - subscription.getInFlightStart());
+			default -> {
+				// Nothing to report, the update just waits for the running drain
+			}
+		}
+	}
+
+	/**
+	 * Makes the last known rate of every pair pending for a new subscriber, so it doesn't wait for the next tick of a
+	 * pair that ticks once a day. Rare pairs are delivered first, as usual.
+	 * <p>
+	 * Runs on the subscribing thread. It only reads the lock-free latest rates table and takes the subscription lock per
+	 * pair, so the publisher and the other subscribers are not held up. The subscription is already live, so a tick
+	 * arriving meanwhile wins and the older snapshot of its pair is dropped as stale.
+	 */
+	private void seed(Subscription subscription) {
+		final LatestRateTable.Snapshot snapshot = new LatestRateTable.Snapshot();
+		int seeded = 0;
+		for (int pairId = 0; pairId < latestRates.size(); pairId++) {
+			if (latestRates.read(pairId, snapshot)) {
+				subscription.seed(pairId, snapshot.getRate(), snapshot.getVersion(), monitor.isRare(latestRates.pair(pairId)));
+				seeded++;
+			}
+		}
+
+		if (subscription.schedule()) {
+			scheduler.enqueue(subscription, timeSource.currentTimeMillis());
+		}
+		log.info("Seeded {} with the last rates of {} pairs", subscription.getUuid(), seeded);
+	}
+
+	/**
+	 * Delivers up to {@code credit} pending updates of the subscription, called by the {@link DeliveryScheduler}.
+	 *
+	 * @return {@code true} if the subscription still has pending updates
+	 */
+	private boolean drain(Subscription subscription, int credit) {
+		long queuedSince = subscription.getReadySince();
+		for (int i = 0; i < credit; i++) {
+			if (!subscription.take(timeSource.currentTimeMillis())) {
+				return false;
+			}
+
+			try {
+				if (subscription.isBatch()) {
+					deliverBatch(subscription);
+				} else {
+					deliver(subscription, subscription.getInFlightStart() - queuedSince);
+				}
+			} finally {
+				subscription.complete();
+			}
+			queuedSince = timeSource.currentTimeMillis();
+		}
+
+		return subscription.yieldTurn();
+	}
+
+	private void deliver(Subscription subscription, long queueDelayMs) {
+		final int pairId = subscription.getInFlightPair();
+		final CcyPair pair = latestRates.pair(pairId);
+		final String ccyPair = latestRates.name(pairId);
+		final int index = subscription.getIndex();
+
+		ThrottlerEvents.deliveryStart(pair, ccyPair, index, queueDelayMs);
+		final DeliveryEndEvent deliveryEnd = ThrottlerEvents.beginDelivery();
+		boolean success = false;
+		try {
+			subscription.getProcessor().onPrice(ccyPair, subscription.getInFlightRate());
+			success = true;
+		} catch (Exception e) {
+			log.debug("Subscriber failed to process a price", e);
+		} finally {
+			ThrottlerEvents.deliveryEnd(deliveryEnd, pair, ccyPair, index, success);
+		}
+	}
+
+	private void deliverBatch(Subscription subscription) {
+		final PriceBatch batch = subscription.getBatch();
+		final BatchDeliveryEvent batchEnd = ThrottlerEvents.beginBatch();
+		boolean success = false;
+		try {
+			subscription.getBatchProcessor().onPrices(batch);
+			success = true;
+		} catch (Exception e) {
+			log.debug("Subscriber failed to process a batch of prices", e);
+		} finally {
+			ThrottlerEvents.batchEnd(batchEnd, subscription.getIndex(), batch.size(), success);
+		}
+	}
+
+	private void checkTimeouts() {
+		final long now = timeSource.currentTimeMillis();
+		scheduler.checkOverruns(now, config.getSoftTimeout().toMillis());
+
+		final long hardTimeoutMs = config.getHardTimeout().toMillis();
+		for (Subscription subscription : subscriptions) {
+			final int pairId = subscription.checkHardTimeout(now, hardTimeoutMs);
+			if (pairId == Subscription.NONE) {
+				continue;
+			}
+
+			final String ccyPair = latestRates.name(pairId);
+			ThrottlerEvents.deliveryTimeout(latestRates.pair(pairId), ccyPair, subscription.getIndex(), now - subscription.getInFlightStart());
+			log.warn("Delivery of '{}' to {} exceeded the hard timeout of {}, cancelling", ccyPair, subscription.getUuid(),
+				config.getHardTimeout());
+			try {
+				subscription.getProcessor().cancel();
+			} catch (Exception e) {
+				log.debug("Subscriber failed to cancel", e);
+			}
 		}
 	}
 
+	private void controlOverload() {
+		final long now = timeSource.currentTimeMillis();
+		long intervalCapMs = Long.MAX_VALUE;
+		for (Subscription subscription : subscriptions) {
+			intervalCapMs = Math.min(intervalCapMs, config.latencyObjective(subscription.getTier()).toMillis());
+		}
+		overload.update(scheduler.load(now), intervalCapMs, now);
+
+		final LatestRateTable.Snapshot snapshot = new LatestRateTable.Snapshot();
+		overload.flush(now, pairId -> {
+			if (latestRates.read(pairId, snapshot)) {
+				final CcyPair pair = latestRates.pair(pairId);
+				fanOut(pair, latestRates.name(pairId), pairId, snapshot.getRate(), snapshot.getVersion(), monitor.isRare(pair), now);
+			}
+		});
+	}
+
 	@Override
 	public void onApplicationEvent(ExchangeRatesChangedEvent event) {
-		event.getRates().forEach(
-			(pair, rate) -> onPrice(pair.toString(), rate)
-		);
+		event.getRates().forEach(this::onPrice);
 	}
 
 	public void onSkip() {
@@ -0,0 +1,109 @@
+package com.price.processor.service;
+
+import com.price.processor.config.StartupConfig;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline.TimelineEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.metrics.StartupStep.Tag;
+import org.springframework.stereotype.Service;
+
+/**
+ * Builds a startup phase timing report out of the {@link BufferingApplicationStartup} timeline once the application is
+ * ready.
+ * <p>
+ * Steps are aggregated by their name (bean instantiation, context refresh, config classes parsing etc.) and the
+ * slowest individual steps are listed with their tags, so it's easy to spot which bean is to blame.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class StartupTimingReporter implements ApplicationListener<ApplicationReadyEvent> {
+	private final StartupConfig config;
+
+	@Override
+	public void onApplicationEvent(ApplicationReadyEvent event) {
+		final ConfigurableApplicationContext context = event.getApplicationContext();
+		if (!(context.getApplicationStartup() instanceof BufferingApplicationStartup startup)) {
+			log.debug("Startup steps are not buffered, no timing report will be built");
+
+			return;
+		}
+
+		final StartupTimeline timeline = startup.drainBufferedTimeline();
+		final String report = buildReport(timeline);
+		log.info("Startup timing report:\n{}", report);
+
+		if (config.getReportFile() != null) {
+			try {
+				if (config.getReportFile().getParent() != null) {
+					Files.createDirectories(config.getReportFile().getParent());
+				}
+				Files.writeString(config.getReportFile(), report);
+				log.info("Startup timing report has been written to '{}'", config.getReportFile());
+			} catch (IOException e) {
+				log.error("Failed to write startup timing report", e);
+			}
+		}
+
+		if (config.isExitAfterReport()) {
+			log.info("Exiting after the startup report as requested");
+			System.exit(SpringApplication.exit(context));
+		}
+	}
+
+	private String buildReport(StartupTimeline timeline) {
+		final List<TimelineEvent> events = timeline.getEvents();
+		final Duration total = events.stream()
+			.map(e -> Duration.between(timeline.getStartTime(), e.getEndTime()))
+			.max(Comparator.naturalOrder())
+			.orElse(Duration.ZERO);
+
+		final Map<String, Duration> byPhase = events.stream()
+			.collect(Collectors.toMap(
+				e -> e.getStartupStep().getName(),
+				TimelineEvent::getDuration,
+				Duration::plus
+			));
+		final Map<String, Long> countByPhase = events.stream()
+			.collect(Collectors.groupingBy(e -> e.getStartupStep().getName(), Collectors.counting()));
+
+		final StringBuilder sb = new StringBuilder();
+		sb.append(String.format("Total: %d ms, %d steps%n", total.toMillis(), events.size()));
+		sb.append(String.format("%nPhases (sum of step durations, nested steps are counted in their parents too):%n"));
+		byPhase.entrySet()
+			.stream()
+			.sorted(Map.Entry.<String, Duration>comparingByValue().reversed())
+			.forEach(e -> sb.append(String.format("%8d ms %6d x  %s%n", e.getValue().toMillis(), countByPhase.get(e.getKey()), e.getKey())));
+
+		sb.append(String.format("%nTop %d slowest steps:%n", config.getTopSteps()));
+		events.stream()
+			.sorted(Comparator.comparing(TimelineEvent::getDuration).reversed())
+			.limit(config.getTopSteps())
+			.forEach(e -> sb.append(String.format("%8d ms  %s %s%n", e.getDuration().toMillis(), e.getStartupStep().getName(), tags(e))));
+
+		return sb.toString();
+	}
+
+	private static Map<String, String> tags(TimelineEvent event) {
+		final Map<String, String> tags = new LinkedHashMap<>();
+		for (Tag tag : event.getStartupStep().getTags()) {
+			tags.put(tag.getKey(), tag.getValue());
+		}
+
+		return tags;
+	}
+}
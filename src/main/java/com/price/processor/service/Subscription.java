@@ -0,0 +1,343 @@
+package com.price.processor.service;
+
+import com.price.processor.model.LatestRateTable;
+import com.price.processor.model.SubscriberTier;
+import java.util.Arrays;
+import java.util.UUID;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * State of a single {@link PriceThrottler} subscriber: the latest not yet delivered rate of every pair (a dirty slot
+ * per pair id) and the delivery in flight.
+ * <p>
+ * Only the last rate of a pair is kept, a newer tick overwrites the pending one. Pairs that were rare when they ticked
+ * are delivered first, the rest round-robin, so a hot pair can't starve the others.
+ * <p>
+ * Everything is guarded by the instance monitor, which is held for a few array operations only. The subscriber itself
+ * is always called outside of it, so the publisher never waits for a subscriber.
+ */
+class Subscription {
+	static final int NONE = -1;
+	static final int BATCH = -2;
+
+	/**
+	 * What {@link #offer(int, double, long, boolean, long, long)} did to the pending state.
+	 */
+	enum Offer {
+		// The update is older than what the subscriber already has
+		STALE,
+		// New pending update, the subscriber is idle and a drain has to be started
+		SCHEDULE,
+		// New pending update, a drain is already running
+		QUEUED,
+		// Replaced a pending update of the same pair
+		CONFLATED,
+		// Replaced a pending update of the same pair while the in-flight delivery exceeds the soft timeout
+		SKIPPED,
+		// A rare update arrived while a non-rare, seeded or same pair delivery is in flight, the subscriber has to be cancelled
+		PREEMPT
+	}
+
+	@Getter
+	private final PriceProcessor processor;
+	@Getter
+	private final UUID uuid;
+	@Getter
+	private final int index;
+	@Getter
+	private final SubscriberTier tier;
+	// Deliveries per turn of the subscription in its tier
+	@Getter
+	private final int weight;
+	private final BatchPriceProcessor batchProcessor;
+	private final PriceBatch batch;
+
+	private final double[] rates;
+	// Version of the pending or the last taken rate of every pair
+	private final long[] versions;
+	private final long[] dirty;
+	private final long[] rare;
+	// Pending or taken rates that come from the snapshot, not from a tick, until the pair ticks
+	private final long[] seeded;
+	private int dirtyCount;
+	private int cursor;
+
+	private boolean closed;
+	private boolean scheduled;
+	private boolean preempted;
+	private boolean timeoutReported;
+	@Getter
+	private int inFlightPair = NONE;
+	@Getter
+	private double inFlightRate;
+	private long inFlightVersion;
+	private boolean inFlightRare;
+	private boolean inFlightSeeded;
+	@Getter
+	private long inFlightStart;
+	// Guarded by the DeliveryScheduler lock
+	@Getter
+	@Setter
+	private long readySince;
+
+	Subscription(PriceProcessor processor, UUID uuid, int index, SubscriberTier tier, int weight, LatestRateTable pairs) {
+		this.processor = processor;
+		this.uuid = uuid;
+		this.index = index;
+		this.tier = tier;
+		this.weight = weight;
+		this.batchProcessor = processor instanceof BatchPriceProcessor b ? b : null;
+		this.batch = batchProcessor != null ? new PriceBatch(pairs) : null;
+
+		final int capacity = pairs.capacity();
+		this.rates = new double[capacity];
+		this.versions = new long[capacity];
+		this.dirty = new long[(capacity + Long.SIZE - 1) / Long.SIZE];
+		this.rare = new long[dirty.length];
+		this.seeded = new long[dirty.length];
+	}
+
+	synchronized Offer offer(int pairId, double rate, long version, boolean isRare, long now, long softTimeoutMs) {
+		if (closed || version <= versions[pairId]) {
+			return Offer.STALE;
+		}
+
+		final boolean wasDirty = store(pairId, rate, version, isRare);
+		clear(seeded, pairId);
+		if (!scheduled) {
+			scheduled = true;
+
+			return Offer.SCHEDULE;
+		}
+		if (isRare && inFlightPair != NONE && !preempted && (!inFlightRare || inFlightSeeded || inFlightPair == pairId)) {
+			preempted = true;
+
+			return Offer.PREEMPT;
+		}
+		if (wasDirty) {
+			return inFlightPair != NONE && now - inFlightStart > softTimeoutMs ? Offer.SKIPPED : Offer.CONFLATED;
+		}
+
+		return Offer.QUEUED;
+	}
+
+	/**
+	 * Makes the rate pending without starting a drain or preempting anything, see {@link #schedule()}. A rare seeded
+	 * rate is delivered before the others, but its delivery is still preempted by a rare tick: the snapshot is not
+	 * news.
+	 */
+	synchronized void seed(int pairId, double rate, long version, boolean isRare) {
+		if (!closed && version > versions[pairId]) {
+			store(pairId, rate, version, isRare);
+			set(seeded, pairId);
+		}
+	}
+
+	/**
+	 * @return {@code true} if there are pending rates and no drain is running, the caller has to start one then
+	 */
+	synchronized boolean schedule() {
+		if (closed || scheduled || dirtyCount == 0) {
+			return false;
+		}
+
+		scheduled = true;
+
+		return true;
+	}
+
+	/**
+	 * Ends the turn of a drain that has used up its credit.
+	 *
+	 * @return {@code true} if there are pending rates, the subscription stays scheduled and has to be queued again then
+	 */
+	synchronized boolean yieldTurn() {
+		if (closed || dirtyCount == 0) {
+			scheduled = false;
+
+			return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Takes the next pending pair as the in-flight delivery or, for a {@link BatchPriceProcessor}, every pending pair.
+	 *
+	 * @return {@code false} if there's nothing pending, the drain is over then
+	 */
+	synchronized boolean take(long now) {
+		if (closed || dirtyCount == 0) {
+			scheduled = false;
+
+			return false;
+		}
+
+		return batch != null ? takeBatch(now) : takeOne(now);
+	}
+
+	private boolean takeOne(long now) {
+		int pairId = nextSet(rare, 0);
+		if (pairId == NONE) {
+			pairId = nextSet(dirty, cursor);
+			if (pairId == NONE) {
+				pairId = nextSet(dirty, 0);
+			}
+		}
+
+		inFlightRare = isSet(rare, pairId);
+		inFlightSeeded = isSet(seeded, pairId);
+		clear(dirty, pairId);
+		clear(rare, pairId);
+		dirtyCount--;
+		cursor = pairId + 1;
+
+		startFlight(pairId, now);
+		inFlightRate = rates[pairId];
+		inFlightVersion = versions[pairId];
+
+		return true;
+	}
+
+	// Rare pairs go first in the batch too, only the ticked ones protect the batch from preemption
+	private boolean takeBatch(long now) {
+		batch.clear();
+		inFlightRare = false;
+		inFlightSeeded = false;
+		for (int pairId = nextSet(rare, 0); pairId != NONE; pairId = nextSet(rare, pairId + 1)) {
+			batch.add(pairId, rates[pairId], versions[pairId], true);
+			clear(dirty, pairId);
+			inFlightRare |= !isSet(seeded, pairId);
+		}
+		for (int pairId = nextSet(dirty, 0); pairId != NONE; pairId = nextSet(dirty, pairId + 1)) {
+			batch.add(pairId, rates[pairId], versions[pairId], false);
+		}
+		Arrays.fill(dirty, 0L);
+		Arrays.fill(rare, 0L);
+		dirtyCount = 0;
+
+		startFlight(BATCH, now);
+
+		return true;
+	}
+
+	/**
+	 * Makes the rates of the in-flight delivery pending again, unless they have been superseded meanwhile. Used when a
+	 * preempted delivery has been cancelled before it succeeded, so the last value of a pair is never lost.
+	 */
+	synchronized void requeueInFlight() {
+		if (inFlightPair == BATCH) {
+			for (int i = 0; i < batch.size(); i++) {
+				requeue(batch.pairId(i), batch.rate(i), batch.version(i), batch.isRare(i));
+			}
+		} else if (inFlightPair != NONE) {
+			requeue(inFlightPair, inFlightRate, inFlightVersion, inFlightRare);
+		}
+	}
+
+	synchronized void complete() {
+		inFlightPair = NONE;
+		preempted = false;
+	}
+
+	/**
+	 * Reports every delivery that has been in flight longer than the hard timeout once.
+	 *
+	 * @return pair id of the delivery (the first pair of a batch) or {@link #NONE}
+	 */
+	synchronized int checkHardTimeout(long now, long hardTimeoutMs) {
+		if (inFlightPair == NONE || timeoutReported || now - inFlightStart <= hardTimeoutMs) {
+			return NONE;
+		}
+
+		timeoutReported = true;
+
+		return inFlightPair == BATCH ? batch.pairId(0) : inFlightPair;
+	}
+
+	synchronized void close() {
+		closed = true;
+	}
+
+	boolean isBatch() {
+		return batchProcessor != null;
+	}
+
+	BatchPriceProcessor getBatchProcessor() {
+		return batchProcessor;
+	}
+
+	PriceBatch getBatch() {
+		return batch;
+	}
+
+	private void startFlight(int pairId, long now) {
+		inFlightPair = pairId;
+		inFlightStart = now;
+		preempted = false;
+		timeoutReported = false;
+	}
+
+	/**
+	 * @return {@code true} if the pair already had a pending rate
+	 */
+	private boolean store(int pairId, double rate, long version, boolean isRare) {
+		final boolean wasDirty = isSet(dirty, pairId);
+		rates[pairId] = rate;
+		versions[pairId] = version;
+		if (!wasDirty) {
+			set(dirty, pairId);
+			dirtyCount++;
+		}
+		// Sticky until delivered, a newer value of a rare pair is still urgent
+		if (isRare) {
+			set(rare, pairId);
+		}
+
+		return wasDirty;
+	}
+
+	private void requeue(int pairId, double rate, long version, boolean isRare) {
+		if (versions[pairId] != version || isSet(dirty, pairId)) {
+			return;
+		}
+
+		rates[pairId] = rate;
+		set(dirty, pairId);
+		dirtyCount++;
+		if (isRare) {
+			set(rare, pairId);
+		}
+	}
+
+	private static boolean isSet(long[] bits, int i) {
+		return (bits[i >>> 6] & (1L << i)) != 0;
+	}
+
+	private static void set(long[] bits, int i) {
+		bits[i >>> 6] |= 1L << i;
+	}
+
+	private static void clear(long[] bits, int i) {
+		bits[i >>> 6] &= ~(1L << i);
+	}
+
+	private static int nextSet(long[] bits, int from) {
+		int word = from >>> 6;
+		if (word >= bits.length) {
+			return NONE;
+		}
+
+		long w = bits[word] & (-1L << from);
+		while (true) {
+			if (w != 0) {
+				return word * Long.SIZE + Long.numberOfTrailingZeros(w);
+			}
+			if (++word == bits.length) {
+				return NONE;
+			}
+			w = bits[word];
+		}
+	}
+}
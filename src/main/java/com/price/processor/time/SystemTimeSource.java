@@ -0,0 +1,81 @@
+package com.price.processor.time;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Wall clock time, the scheduled tasks run on a single daemon thread created on the first use.
+ */
+final class SystemTimeSource implements TimeSource {
+	static final SystemTimeSource INSTANCE = new SystemTimeSource();
+
+	private SystemTimeSource() {
+	}
+
+	@Override
+	public long currentTimeMillis() {
+		return System.currentTimeMillis();
+	}
+
+	@Override
+	public long nanoTime() {
+		return System.nanoTime();
+	}
+
+	@Override
+	public void sleep(long millis) throws InterruptedException {
+		Thread.sleep(millis);
+	}
+
+	@Override
+	public Thread newThread(Runnable task, String name) {
+		final Thread thread = new Thread(task, name);
+		thread.setDaemon(true);
+
+		return thread;
+	}
+
+	@Override
+	public Condition newCondition(ReentrantLock lock) {
+		return new LockCondition(lock.newCondition());
+	}
+
+	@Override
+	public Task schedule(Runnable task, long delayMillis) {
+		return cancellable(Timer.EXECUTOR.schedule(task, delayMillis, TimeUnit.MILLISECONDS));
+	}
+
+	@Override
+	public Task scheduleAtFixedRate(Runnable task, long delayMillis, long periodMillis) {
+		return cancellable(Timer.EXECUTOR.scheduleAtFixedRate(task, delayMillis, periodMillis, TimeUnit.MILLISECONDS));
+	}
+
+	private static Task cancellable(ScheduledFuture<?> future) {
+		return () -> future.cancel(false);
+	}
+
+	private record LockCondition(java.util.concurrent.locks.Condition condition) implements Condition {
+		@Override
+		public void await() throws InterruptedException {
+			condition.await();
+		}
+
+		@Override
+		public void signal() {
+			condition.signal();
+		}
+
+		@Override
+		public void signalAll() {
+			condition.signalAll();
+		}
+	}
+
+	// Lazy holder, nothing is started unless something is scheduled
+	private static final class Timer {
+		static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(r -> INSTANCE.newThread(r, "timer"));
+	}
+}
@@ -0,0 +1,62 @@
+package com.price.processor.time;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Clock and scheduler of the price pipeline. Everything that depends on time (rare thresholds, timeouts, the generator
+ * linger) takes it from here, so the pipeline can run on the {@link #system()} time or on a {@link VirtualTimeSource}
+ * that skips the waits.
+ * <p>
+ * Threads that wait for time or for each other have to be created by {@link #newThread} and wait with {@link #sleep}
+ * or a {@link #newCondition} condition, that's how the virtual time knows when everybody is idle.
+ */
+public interface TimeSource {
+	static TimeSource system() {
+		return SystemTimeSource.INSTANCE;
+	}
+
+	long currentTimeMillis();
+
+	/**
+	 * @return time in nanos for measuring intervals, like {@link System#nanoTime()}
+	 */
+	long nanoTime();
+
+	void sleep(long millis) throws InterruptedException;
+
+	/**
+	 * @return daemon thread, not started yet
+	 */
+	Thread newThread(Runnable task, String name);
+
+	/**
+	 * @return condition of the lock
+	 */
+	Condition newCondition(ReentrantLock lock);
+
+	/**
+	 * Runs the task once after the delay.
+	 */
+	Task schedule(Runnable task, long delayMillis);
+
+	/**
+	 * Runs the task periodically after the delay. The tasks run on a thread shared by all the tasks, they must be short.
+	 */
+	Task scheduleAtFixedRate(Runnable task, long delayMillis, long periodMillis);
+
+	interface Task {
+		void cancel();
+	}
+
+	/**
+	 * The part of {@link java.util.concurrent.locks.Condition} the virtual time can support: there's no timed wait, a
+	 * thread waiting for time has to {@link #sleep}. Call with the lock held.
+	 */
+	interface Condition {
+		void await() throws InterruptedException;
+
+		void signal();
+
+		void signalAll();
+	}
+}
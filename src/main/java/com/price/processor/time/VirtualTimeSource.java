@@ -0,0 +1,308 @@
+package com.price.processor.time;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Discrete-event time: the clock stands still while anything runs and jumps to the next event once all the threads of
+ * the time source are waiting, so a day of waits takes as long as the work done in that day.
+ * <p>
+ * The time is driven by {@link #runUntil(long)} on a thread of its own, the driver. Scheduled tasks run on the driver,
+ * sleeping threads are woken up by it. Only threads created by {@link #newThread} may {@link #sleep} or wait on a
+ * {@link #newCondition} condition, and they must not wait on anything else that needs the time to move. Short lock
+ * waits are fine, the lock holder keeps running.
+ * <p>
+ * Events due at the same millisecond fire together in the order they were scheduled, the threads they wake up run
+ * concurrently. An interrupted sleep returns right away without waiting for the time to move.
+ */
+@Slf4j
+public class VirtualTimeSource implements TimeSource {
+	private final Object monitor = new Object();
+	// Guarded by the monitor
+	private final PriorityQueue<Event> events = new PriorityQueue<>();
+	private long sequence;
+	// Threads of the time source that are not waiting on it
+	private int running;
+	private volatile Thread driver;
+
+	private volatile long now;
+
+	public VirtualTimeSource(long startMillis) {
+		this.now = startMillis;
+	}
+
+	@Override
+	public long currentTimeMillis() {
+		return now;
+	}
+
+	@Override
+	public long nanoTime() {
+		return TimeUnit.MILLISECONDS.toNanos(now);
+	}
+
+	@Override
+	public void sleep(long millis) throws InterruptedException {
+		if (Thread.currentThread() == driver) {
+			throw new IllegalStateException("The driver can't sleep, it moves the time");
+		}
+		if (Thread.interrupted()) {
+			throw new InterruptedException();
+		}
+		if (millis <= 0L) {
+			return;
+		}
+
+		final Event wakeUp = new Event(Thread.currentThread());
+		synchronized (monitor) {
+			add(wakeUp, now + millis);
+			blocked();
+		}
+
+		while (!wakeUp.fired) {
+			LockSupport.park(this);
+			if (Thread.interrupted()) {
+				synchronized (monitor) {
+					if (!wakeUp.fired) {
+						events.remove(wakeUp);
+						running++;
+
+						throw new InterruptedException();
+					}
+				}
+				// Woken up at the same time, keep the interrupt for later
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	@Override
+	public Thread newThread(Runnable task, String name) {
+		final Thread thread = new Thread(name) {
+			@Override
+			public synchronized void start() {
+				synchronized (monitor) {
+					running++;
+				}
+				super.start();
+			}
+
+			@Override
+			public void run() {
+				try {
+					task.run();
+				} finally {
+					synchronized (monitor) {
+						blocked();
+					}
+				}
+			}
+		};
+		thread.setDaemon(true);
+
+		return thread;
+	}
+
+	@Override
+	public Condition newCondition(ReentrantLock lock) {
+		return new VirtualCondition(lock);
+	}
+
+	@Override
+	public Task schedule(Runnable task, long delayMillis) {
+		return scheduleAtFixedRate(task, delayMillis, 0L);
+	}
+
+	@Override
+	public Task scheduleAtFixedRate(Runnable task, long delayMillis, long periodMillis) {
+		final Event event = new Event(task, periodMillis);
+		synchronized (monitor) {
+			add(event, now + Math.max(0L, delayMillis));
+		}
+
+		return () -> {
+			synchronized (monitor) {
+				event.cancelled = true;
+				events.remove(event);
+			}
+		};
+	}
+
+	/**
+	 * Moves the time forward event by event, waiting for the threads of the time source to finish their work at every
+	 * step. Returns once the next event is later than the end, the time is the end then.
+	 */
+	public void runUntil(long endMillis) throws InterruptedException {
+		final List<Event> due = new ArrayList<>();
+		synchronized (monitor) {
+			driver = Thread.currentThread();
+		}
+		try {
+			while (true) {
+				synchronized (monitor) {
+					while (running > 0) {
+						monitor.wait();
+					}
+
+					final Event next = events.peek();
+					if (next == null || next.time > endMillis) {
+						now = Math.max(now, endMillis);
+
+						return;
+					}
+
+					now = next.time;
+					while (!events.isEmpty() && events.peek().time == now) {
+						final Event event = events.poll();
+						if (event.thread != null) {
+							event.fired = true;
+							running++;
+							LockSupport.unpark(event.thread);
+						} else {
+							due.add(event);
+						}
+					}
+				}
+
+				for (Event event : due) {
+					run(event);
+				}
+				due.clear();
+			}
+		} finally {
+			synchronized (monitor) {
+				driver = null;
+			}
+		}
+	}
+
+	private void run(Event event) {
+		try {
+			event.task.run();
+		} catch (RuntimeException e) {
+			log.error("Scheduled task failed", e);
+		}
+
+		synchronized (monitor) {
+			if (event.period > 0L && !event.cancelled) {
+				add(event, event.time + event.period);
+			}
+		}
+	}
+
+	// Call with the monitor held
+	private void add(Event event, long time) {
+		event.time = time;
+		event.sequence = sequence++;
+		events.add(event);
+	}
+
+	// Call with the monitor held
+	private void blocked() {
+		if (--running == 0) {
+			monitor.notifyAll();
+		}
+	}
+
+	private static final class Event implements Comparable<Event> {
+		private final Thread thread;
+		private final Runnable task;
+		private final long period;
+		private long time;
+		private long sequence;
+		private volatile boolean fired;
+		private boolean cancelled;
+
+		Event(Thread thread) {
+			this.thread = thread;
+			this.task = null;
+			this.period = 0L;
+		}
+
+		Event(Runnable task, long period) {
+			this.thread = null;
+			this.task = task;
+			this.period = period;
+		}
+
+		@Override
+		public int compareTo(Event other) {
+			final int byTime = Long.compare(time, other.time);
+
+			return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+		}
+	}
+
+	/**
+	 * Counts the waiting threads as idle. Every waiter has a condition of its own, so a signal wakes exactly the thread
+	 * it has counted as running again.
+	 */
+	private final class VirtualCondition implements Condition {
+		private final ReentrantLock lock;
+		// Guarded by the lock
+		private final List<Waiter> waiters = new ArrayList<>();
+
+		VirtualCondition(ReentrantLock lock) {
+			this.lock = lock;
+		}
+
+		@Override
+		public void await() throws InterruptedException {
+			final Waiter waiter = new Waiter(lock.newCondition());
+			waiters.add(waiter);
+			synchronized (monitor) {
+				blocked();
+			}
+
+			try {
+				while (!waiter.signalled) {
+					waiter.condition.await();
+				}
+			} catch (InterruptedException e) {
+				if (!waiter.signalled) {
+					waiters.remove(waiter);
+					synchronized (monitor) {
+						running++;
+					}
+				}
+
+				throw e;
+			}
+		}
+
+		@Override
+		public void signal() {
+			if (!waiters.isEmpty()) {
+				wake(waiters.remove(0));
+			}
+		}
+
+		@Override
+		public void signalAll() {
+			waiters.forEach(this::wake);
+			waiters.clear();
+		}
+
+		private void wake(Waiter waiter) {
+			waiter.signalled = true;
+			synchronized (monitor) {
+				running++;
+			}
+			waiter.condition.signal();
+		}
+	}
+
+	private static final class Waiter {
+		private final java.util.concurrent.locks.Condition condition;
+		private boolean signalled;
+
+		Waiter(java.util.concurrent.locks.Condition condition) {
+			this.condition = condition;
+		}
+	}
+}
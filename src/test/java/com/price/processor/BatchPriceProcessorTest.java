@@ -0,0 +1,104 @@
+package com.price.processor;
+
+import com.price.processor.event.ExchangeRatesChangedEvent;
+import com.price.processor.model.CcyPair;
+import com.price.processor.service.BatchPriceProcessor;
+import com.price.processor.service.PriceBatch;
+import com.price.processor.service.PriceThrottler;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class BatchPriceProcessorTest {
+	private final ThrottlerFixture fixture = new ThrottlerFixture();
+	private PriceThrottler throttler;
+
+	@BeforeEach
+	public void setup() {
+		fixture.exchangeRatesConfig.setRareChangingThreshold(Duration.ZERO);
+		fixture.throttlerConfig.setMaxSubscribers(4);
+		throttler = fixture.start();
+	}
+
+	@AfterEach
+	public void teardown() {
+		fixture.shutdown();
+	}
+
+	@Test
+	public void when_batch_subscriber_is_busy_expect_latest_rates_in_one_call() throws Exception {
+		final RecordingBatchProcessor processor = new RecordingBatchProcessor();
+		throttler.subscribe(processor);
+
+		throttler.onPrice("EURUSD", 1.0D);
+		final Map<String, Double> first = processor.batches.poll(5L, TimeUnit.SECONDS);
+		Assertions.assertEquals(Map.of("EURUSD", 1.0D), first);
+
+		// The subscriber is still busy with the first batch, everything else is conflated meanwhile
+		for (int i = 1; i <= 100; i++) {
+			throttler.onPrice("EURUSD", 1.0D + i);
+			throttler.onPrice("USDJPY", 100.0D + i);
+			throttler.onPrice("EURRUB", 80.0D + i);
+		}
+		processor.release.countDown();
+
+		final Map<String, Double> second = processor.batches.poll(5L, TimeUnit.SECONDS);
+		Assertions.assertEquals(Map.of("EURUSD", 101.0D, "USDJPY", 200.0D, "EURRUB", 180.0D), second);
+		Assertions.assertNull(processor.batches.poll(200L, TimeUnit.MILLISECONDS));
+		Assertions.assertEquals(0, processor.deliveries());
+	}
+
+	@Test
+	public void when_rare_pair_is_pending_expect_it_first_in_batch() throws Exception {
+		final CcyPair rare = ThrottlerFixture.pair("EURRUB");
+		final RecordingBatchProcessor processor = new RecordingBatchProcessor();
+		throttler.subscribe(processor);
+
+		throttler.onPrice("EURUSD", 1.0D);
+		Assertions.assertNotNull(processor.batches.poll(5L, TimeUnit.SECONDS));
+
+		throttler.onPrice("USDJPY", 100.0D);
+		throttler.onPrice("GBPUSD", 1.3D);
+		// Only the monitor has seen the pair, so it's already rare when it reaches the throttler
+		fixture.monitor().onApplicationEvent(new ExchangeRatesChangedEvent(this, Map.of(rare, 80.0D)));
+		Thread.sleep(10L);
+		throttler.onApplicationEvent(new ExchangeRatesChangedEvent(this, Map.of(rare, 81.0D)));
+		processor.release.countDown();
+
+		final Map<String, Double> second = processor.batches.poll(5L, TimeUnit.SECONDS);
+		Assertions.assertNotNull(second);
+		Assertions.assertEquals(List.of("EURRUB", "USDJPY", "GBPUSD"), new ArrayList<>(second.keySet()));
+		Assertions.assertTrue(processor.rareFirst);
+	}
+
+	private static class RecordingBatchProcessor extends TestPriceProcessor implements BatchPriceProcessor {
+		private final LinkedBlockingQueue<Map<String, Double>> batches = new LinkedBlockingQueue<>();
+		private final CountDownLatch release = new CountDownLatch(1);
+		private volatile boolean rareFirst;
+
+		@Override
+		public void onPrices(PriceBatch batch) {
+			final Map<String, Double> rates = new LinkedHashMap<>();
+			for (int i = 0; i < batch.size(); i++) {
+				rates.put(batch.ccyPair(i), batch.rate(i));
+			}
+			rareFirst = batch.size() > 0 && batch.isRare(0);
+			batches.add(rates);
+
+			try {
+				release.await(5L, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+}
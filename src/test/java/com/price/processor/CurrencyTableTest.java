@@ -0,0 +1,49 @@
+package com.price.processor;
+
+import com.price.processor.exception.ApplicationErrorException;
+import com.price.processor.model.CcyPair;
+import com.price.processor.model.CurrencyTable;
+import com.price.processor.service.CurrencyUtil;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class CurrencyTableTest {
+	@Test
+	public void when_code_packed_expect_dense_index_roundtrip() {
+		CurrencyTable table = new CurrencyTable(List.of("USD", "EUR", "RUB", "EUR"));
+		Assertions.assertEquals(3, table.size());
+		Assertions.assertEquals(0, table.indexOf("EUR", 0));
+		Assertions.assertEquals(2, table.indexOf("EURUSD", 3));
+		Assertions.assertEquals("RUB", table.code(table.indexOf("RUB", 0)));
+		Assertions.assertEquals("USD", CurrencyTable.unpack(table.packedCode(2)));
+		Assertions.assertEquals(CurrencyTable.UNKNOWN, table.indexOf("JPY", 0));
+		Assertions.assertEquals(CurrencyTable.UNKNOWN, table.indexOf("usd", 0));
+		Assertions.assertEquals(CurrencyTable.UNKNOWN, table.indexOf("US", 0));
+	}
+
+	@Test
+	public void when_pair_converted_expect_same_pair_without_moneta() throws ApplicationErrorException {
+		CcyPair pair = CurrencyUtil.codePairToCurrPair("EURRUB");
+		Assertions.assertEquals("EURRUB", pair.toString());
+		Assertions.assertEquals(pair, CcyPair.fromCode(pair.code()));
+		Assertions.assertEquals("EUR", CurrencyUtil.toCurrencyUnit(pair.base()).getCurrencyCode());
+		Assertions.assertThrows(ApplicationErrorException.class, () -> CurrencyUtil.codePairToCurrPair("EURXYZ"));
+		Assertions.assertThrows(ApplicationErrorException.class, () -> CurrencyUtil.codePairToCurrPair("EURUS"));
+	}
+
+	@Test
+	public void when_table_installed_expect_pairs_made_of_it() throws ApplicationErrorException {
+		CurrencyTable table = new CurrencyTable(List.of("XAU", "USD"));
+		CurrencyTable.install(table);
+		try {
+			CcyPair pair = CurrencyUtil.codePairToCurrPair("XAUUSD");
+			Assertions.assertEquals(new CcyPair(table.indexOf("XAU", 0), table.indexOf("USD", 0)), pair);
+			Assertions.assertEquals("XAUUSD", pair.toString());
+			Assertions.assertEquals(pair, CcyPair.fromCode(pair.code()));
+			Assertions.assertThrows(ApplicationErrorException.class, () -> CurrencyUtil.codePairToCurrPair("EURUSD"));
+		} finally {
+			CurrencyTable.install(CurrencyTable.iso4217());
+		}
+	}
+}
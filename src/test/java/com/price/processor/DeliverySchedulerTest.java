@@ -0,0 +1,117 @@
+package com.price.processor;
+
+import com.price.processor.model.CcyPair;
+import com.price.processor.model.CurrencyTable;
+import com.price.processor.model.SubscriberTier;
+import com.price.processor.model.dto.TierStats;
+import com.price.processor.service.PriceThrottler;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class DeliverySchedulerTest {
+	private final ThrottlerFixture fixture = new ThrottlerFixture();
+	private PriceThrottler throttler;
+
+	@AfterEach
+	public void teardown() {
+		fixture.shutdown();
+	}
+
+	@Test
+	public void when_bulk_subscribers_are_slow_expect_realtime_still_served() throws Exception {
+		throttler = start(2);
+		final CountDownLatch release = new CountDownLatch(1);
+		for (int i = 0; i < 3; i++) {
+			throttler.subscribe(new TestPriceProcessor(() -> await(release)), SubscriberTier.BULK, 1);
+		}
+		final TestPriceProcessor realtime = new TestPriceProcessor();
+		throttler.subscribe(realtime, SubscriberTier.REALTIME, 1);
+
+		throttler.onPrice("EURUSD", 1.1D);
+		Thread.sleep(100L);
+		throttler.onPrice("EURUSD", 1.2D);
+
+		ThrottlerFixture.await(() -> realtime.deliveries() >= 2);
+		Assertions.assertEquals(List.of("EURUSD=1.1", "EURUSD=1.2"), realtime.prices());
+
+		// A single worker is left to the bulk tier, the other bulk subscribers wait for it
+		final TierStats bulk = throttler.getTierStats().get(SubscriberTier.BULK);
+		Assertions.assertEquals(1, bulk.maxWorkers());
+		Assertions.assertEquals(1, bulk.busyWorkers());
+		Assertions.assertEquals(2, bulk.queued());
+		release.countDown();
+	}
+
+	@Test
+	public void when_more_slow_subscribers_than_workers_expect_fast_one_still_served() throws Exception {
+		fixture.throttlerConfig.setSoftTimeout(Duration.ofMillis(100L));
+		throttler = start(4);
+		final CountDownLatch release = new CountDownLatch(1);
+		final List<TestPriceProcessor> slow = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			final TestPriceProcessor processor = new TestPriceProcessor(() -> await(release));
+			throttler.subscribe(processor, SubscriberTier.STANDARD, 1);
+			slow.add(processor);
+		}
+		final TestPriceProcessor fast = new TestPriceProcessor();
+		throttler.subscribe(fast, SubscriberTier.STANDARD, 1);
+
+		throttler.onPrice("EURUSD", 1.1D);
+
+		// Every slow subscriber gets a worker in the end, the stuck ones are replaced and the fast one is served too
+		ThrottlerFixture.await(() -> fast.deliveries() >= 1 && slow.stream().allMatch(p -> p.deliveries() >= 1));
+		final TierStats standard = throttler.getTierStats().get(SubscriberTier.STANDARD);
+		Assertions.assertEquals(3, standard.maxWorkers());
+		Assertions.assertTrue(standard.busyWorkers() <= standard.maxWorkers(), "busy " + standard.busyWorkers());
+		ThrottlerFixture.await(() -> throttler.getTierStats().get(SubscriberTier.STANDARD).overrunWorkers() == 5);
+
+		throttler.onPrice("EURUSD", 1.2D);
+		ThrottlerFixture.await(() -> fast.deliveries() >= 2);
+		Assertions.assertEquals(List.of("EURUSD=1.1", "EURUSD=1.2"), fast.prices());
+
+		// The overrunning workers exit once their subscribers are done
+		release.countDown();
+		ThrottlerFixture.await(() -> throttler.getTierStats().get(SubscriberTier.STANDARD).overrunWorkers() == 0);
+	}
+
+	@Test
+	public void when_workers_are_scarce_expect_deliveries_shared_by_weight() throws Exception {
+		throttler = start(1);
+		final List<String> deliveries = Collections.synchronizedList(new ArrayList<>());
+		final Runnable work = TestPriceProcessor.sleeping(5L);
+		throttler.subscribe(new TestPriceProcessor("heavy", work, deliveries), SubscriberTier.STANDARD, 3);
+		throttler.subscribe(new TestPriceProcessor("light", work, deliveries), SubscriberTier.STANDARD, 1);
+
+		final CurrencyTable table = CurrencyTable.current();
+		final int eur = table.indexOf("EUR", 0);
+		for (int quote = 0; quote < 40; quote++) {
+			fixture.publish(new CcyPair(eur, quote), 1.0D + quote);
+		}
+
+		ThrottlerFixture.await(() -> deliveries.size() >= 40);
+		final List<String> first = new ArrayList<>(deliveries.subList(0, 40));
+		final long heavy = first.stream().filter("heavy"::equals).count();
+		Assertions.assertTrue(heavy >= 27 && heavy <= 33, "heavy got " + heavy + " of 40 deliveries");
+	}
+
+	private PriceThrottler start(int workers) {
+		fixture.throttlerConfig.setWorkers(workers);
+
+		return fixture.start();
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(10L, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -31,4 +31,16 @@ public class ExchangeRatesGeneratorTest {
 		Assertions.assertNotEquals(prevRates.values(), lastRates.values());
 	}
 
+	@Test
+	public void when_stopped_expect_no_ticks_until_started() throws InterruptedException {
+		generator.stop();
+		Assertions.assertFalse(generator.isRunning());
+		final Map<CcyPair, Double> rates = generator.getLastGeneratedRates();
+		Thread.sleep(300L);
+		Assertions.assertSame(rates, generator.getLastGeneratedRates());
+
+		generator.start();
+		Assertions.assertTrue(generator.isRunning());
+		Assertions.assertNotSame(rates, generator.getLastGeneratedRates());
+	}
 }
@@ -0,0 +1,149 @@
+package com.price.processor;
+
+import com.price.processor.ipc.PriceSnapshot;
+import com.price.processor.ipc.SharedPriceTableReader;
+import com.price.processor.ipc.SharedPriceTableWriter;
+import com.price.processor.model.CcyPair;
+import com.price.processor.model.CurrencyTable;
+import com.price.processor.model.LatestRateTable;
+import com.price.processor.service.PriceThrottler;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.IntConsumer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class MultiProducerTest {
+	private static final int PAIRS = 1024;
+	private static final int PRODUCERS = 8;
+	private static final int TICKS = 50;
+
+	private final ThrottlerFixture fixture = new ThrottlerFixture();
+	private final List<CcyPair> pairs = new ArrayList<>();
+	private PriceThrottler throttler;
+	@TempDir
+	Path dir;
+
+	@BeforeEach
+	public void setup() {
+		fixture.exchangeRatesConfig.setRareChangingThreshold(Duration.ofMinutes(1L));
+		fixture.throttlerConfig.setMaxSubscribers(4);
+		fixture.throttlerConfig.setMaxPairs(PAIRS);
+		fixture.throttlerConfig.setWorkers(4);
+		throttler = fixture.start();
+
+		final CurrencyTable table = CurrencyTable.current();
+		for (int base = 0; pairs.size() < PAIRS; base++) {
+			for (int quote = base + 1; quote < table.size() && pairs.size() < PAIRS; quote++) {
+				pairs.add(new CcyPair(base, quote));
+			}
+		}
+	}
+
+	@AfterEach
+	public void teardown() {
+		fixture.shutdown();
+	}
+
+	@Test
+	public void when_published_from_many_threads_expect_every_pair_delivered_in_order() throws Exception {
+		final List<TestPriceProcessor> processors = subscribe(3);
+
+		// Every pair belongs to a single producer, so its rates grow
+		produce(producer -> {
+			for (int tick = 1; tick <= TICKS; tick++) {
+				for (int pair = producer; pair < PAIRS; pair += PRODUCERS) {
+					fixture.publish(pairs.get(pair), tick);
+				}
+			}
+		});
+
+		ThrottlerFixture.await(() -> processors.stream().allMatch(MultiProducerTest::upToDate));
+		for (TestPriceProcessor processor : processors) {
+			Assertions.assertEquals(0, processor.outOfOrder());
+		}
+		Assertions.assertTrue(pairs.stream().noneMatch(fixture.monitor()::isRare));
+	}
+
+	@Test
+	public void when_producers_tick_same_pair_expect_latest_version_everywhere() throws Exception {
+		final int shared = 4;
+		try (SharedPriceTableWriter writer = new SharedPriceTableWriter(dir.resolve("prices"), shared);
+			 SharedPriceTableReader reader = SharedPriceTableReader.open(dir.resolve("prices"))) {
+			throttler.setSharedPriceTable(writer);
+			final List<TestPriceProcessor> processors = subscribe(3);
+
+			// The rates of a pair race, whichever gets the last version is the latest one
+			produce(producer -> {
+				for (int tick = 1; tick <= TICKS * 10; tick++) {
+					for (int pair = 0; pair < shared; pair++) {
+						fixture.publish(pairs.get(pair), tick * PRODUCERS + producer);
+					}
+				}
+			});
+
+			final LatestRateTable latestRates = throttler.getLatestRates();
+			final LatestRateTable.Snapshot latest = new LatestRateTable.Snapshot();
+			final PriceSnapshot published = new PriceSnapshot();
+			for (int pair = 0; pair < shared; pair++) {
+				final int pairId = latestRates.register(pairs.get(pair));
+				Assertions.assertTrue(latestRates.read(pairId, latest));
+				Assertions.assertEquals((long) TICKS * 10 * PRODUCERS, latest.getVersion());
+
+				Assertions.assertTrue(reader.read(pairId, published));
+				Assertions.assertEquals(latest.getVersion(), published.getVersion());
+				Assertions.assertEquals(latest.getRate(), published.getRate());
+
+				final String name = latestRates.name(pairId);
+				final double rate = latest.getRate();
+				ThrottlerFixture.await(() -> processors.stream().allMatch(p -> p.last().getOrDefault(name, 0.0D) == rate));
+			}
+		}
+	}
+
+	private List<TestPriceProcessor> subscribe(int count) {
+		final List<TestPriceProcessor> processors = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			final TestPriceProcessor processor = new TestPriceProcessor();
+			processors.add(processor);
+			throttler.subscribe(processor);
+		}
+
+		return processors;
+	}
+
+	/**
+	 * Runs the producers at once and waits for them.
+	 */
+	private static void produce(IntConsumer producer) throws InterruptedException {
+		final CountDownLatch start = new CountDownLatch(1);
+		final List<Thread> threads = new ArrayList<>();
+		for (int i = 0; i < PRODUCERS; i++) {
+			final int index = i;
+			final Thread thread = new Thread(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					return;
+				}
+				producer.accept(index);
+			});
+			thread.start();
+			threads.add(thread);
+		}
+		start.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+	}
+
+	private static boolean upToDate(TestPriceProcessor processor) {
+		return processor.last().size() == PAIRS && processor.last().values().stream().allMatch(rate -> rate == TICKS);
+	}
+}
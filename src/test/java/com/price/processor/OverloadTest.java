@@ -0,0 +1,74 @@
+package com.price.processor;
+
+import com.price.processor.model.OverloadState;
+import com.price.processor.model.dto.OverloadStats;
+import com.price.processor.service.PriceThrottler;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class OverloadTest {
+	private final ThrottlerFixture fixture = new ThrottlerFixture();
+	private final List<TestPriceProcessor> processors = new ArrayList<>();
+	private PriceThrottler throttler;
+
+	@BeforeEach
+	public void setup() {
+		fixture.exchangeRatesConfig.setRareChangingThreshold(Duration.ofMillis(200L));
+		fixture.throttlerConfig.setWorkers(1);
+		fixture.throttlerConfig.getOverload().setPeriod(Duration.ofMillis(10L));
+		fixture.throttlerConfig.getOverload().setRecovery(Duration.ofMillis(50L));
+		fixture.throttlerConfig.getOverload().setConflationInterval(Duration.ofMillis(20L));
+		fixture.throttlerConfig.getOverload().setMaxConflationInterval(Duration.ofMillis(80L));
+		throttler = fixture.start();
+		for (int i = 0; i < 3; i++) {
+			final TestPriceProcessor processor = new TestPriceProcessor(TestPriceProcessor.sleeping(5L));
+			processors.add(processor);
+			throttler.subscribe(processor);
+		}
+	}
+
+	@AfterEach
+	public void teardown() {
+		fixture.shutdown();
+	}
+
+	@Test
+	public void when_workers_fall_behind_expect_hot_ticks_coalesced_and_rare_delivered() throws Exception {
+		Assertions.assertEquals(OverloadState.NORMAL, throttler.getOverloadStats().state());
+		fixture.publish("EURRUB", 80.0D);
+
+		// 3 subscribers taking 5 ms per rate on a single worker can't keep up with 5 hot pairs ticking every ms
+		OverloadState worst = OverloadState.NORMAL;
+		final long end = System.currentTimeMillis() + 500L;
+		for (int tick = 0; System.currentTimeMillis() < end; tick++) {
+			for (String pair : List.of("EURUSD", "GBPUSD", "USDJPY", "AUDUSD", "USDCHF")) {
+				fixture.publish(pair, tick);
+			}
+			final OverloadState state = throttler.getOverloadStats().state();
+			worst = state.compareTo(worst) > 0 ? state : worst;
+			Thread.sleep(1L);
+		}
+		Assertions.assertEquals(OverloadState.SATURATED, worst);
+		Assertions.assertTrue(throttler.getOverloadStats().coalescedTicks() > 0L);
+
+		// EURRUB hasn't changed for longer than the rare threshold, it's never coalesced and preempts a hot delivery.
+		// The monitor sees the tick before the throttler, like in the application context.
+		final long coalesced = throttler.getOverloadStats().coalescedTicks();
+		fixture.publish("EURRUB", 81.0D);
+		Assertions.assertEquals(coalesced, throttler.getOverloadStats().coalescedTicks());
+		Assertions.assertTrue(processors.stream().mapToInt(TestPriceProcessor::cancels).sum() > 0);
+		fixture.publish("EURUSD", 1.5D);
+		ThrottlerFixture.await(() -> processors.stream().allMatch(p -> p.last().getOrDefault("EURRUB", 0.0D) == 81.0D
+			&& p.last().getOrDefault("EURUSD", 0.0D) == 1.5D));
+
+		ThrottlerFixture.await(() -> throttler.getOverloadStats().state() == OverloadState.NORMAL);
+		final OverloadStats stats = throttler.getOverloadStats();
+		Assertions.assertEquals(5000L, stats.softTimeoutMs());
+		Assertions.assertEquals(0L, stats.conflationIntervalMs());
+	}
+}
@@ -0,0 +1,125 @@
+package com.price.processor;
+
+import com.price.processor.config.RelayConfig;
+import com.price.processor.relay.RelayClient;
+import com.price.processor.relay.RelayServer;
+import com.price.processor.service.PriceThrottler;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class RelayTest {
+	private final List<AutoCloseable> resources = new ArrayList<>();
+	private final List<ThrottlerFixture> fixtures = new ArrayList<>();
+	private RelayConfig config;
+	private PriceThrottler upstream;
+	private RelayServer server;
+
+	@BeforeEach
+	public void setup() throws Exception {
+		config = new RelayConfig();
+		config.setPort(0);
+		config.setHeartbeat(Duration.ofMillis(100L));
+		config.setReconnectDelay(Duration.ofMillis(100L));
+
+		upstream = throttler().start();
+		server = new RelayServer(config, upstream);
+		server.start();
+		resources.add(server);
+		config.setUpstream("localhost:" + server.getPort());
+	}
+
+	@AfterEach
+	public void teardown() throws Exception {
+		for (AutoCloseable resource : resources) {
+			resource.close();
+		}
+		fixtures.forEach(ThrottlerFixture::shutdown);
+	}
+
+	@Test
+	public void when_downstream_connects_expect_snapshot_then_conflated_changes() throws Exception {
+		upstream.onPrice("EURUSD", 1.1D);
+		upstream.onPrice("EURRUB", 80.0D);
+
+		final TestPriceProcessor processor = new TestPriceProcessor();
+		final Map<String, Double> received = processor.last();
+		final RelayClient client = downstream(processor);
+		ThrottlerFixture.await(() -> received.size() == 2);
+		Assertions.assertEquals(Map.of("EURUSD", 1.1D, "EURRUB", 80.0D), received);
+		Assertions.assertEquals(1L, client.getResyncs());
+
+		for (int i = 1; i <= 100; i++) {
+			upstream.onPrice("EURUSD", 1.0D + i);
+		}
+		upstream.onPrice("USDJPY", 110.0D);
+		ThrottlerFixture.await(() -> Map.of("EURUSD", 101.0D, "EURRUB", 80.0D, "USDJPY", 110.0D).equals(received));
+		Assertions.assertTrue(client.getLastSequence() >= 2L);
+		Assertions.assertEquals(1, server.getConnectionCount());
+	}
+
+	@Test
+	public void when_several_downstreams_connected_expect_same_rates_everywhere() throws Exception {
+		final Map<String, Double> first = downstream();
+		final Map<String, Double> second = downstream();
+		ThrottlerFixture.await(() -> server.getConnectionCount() == 2);
+
+		upstream.onPrice("EURUSD", 1.1D);
+		upstream.onPrice("GBPUSD", 1.3D);
+		upstream.onPrice("EURUSD", 1.2D);
+		ThrottlerFixture.await(() -> Map.of("EURUSD", 1.2D, "GBPUSD", 1.3D).equals(first) && first.equals(second));
+
+		// A late downstream gets everything with its snapshot
+		final Map<String, Double> late = downstream();
+		ThrottlerFixture.await(() -> late.equals(first));
+	}
+
+	@Test
+	public void when_client_stays_silent_expect_other_downstreams_connected() throws Exception {
+		// The silent client would hold the acceptor for 3 heartbeats
+		config.setHeartbeat(Duration.ofSeconds(5L));
+		final Socket silent = new Socket("localhost", server.getPort());
+		resources.add(silent);
+		upstream.onPrice("EURUSD", 1.1D);
+
+		final long start = System.currentTimeMillis();
+		final Map<String, Double> received = downstream();
+		ThrottlerFixture.await(() -> received.size() == 1);
+		Assertions.assertTrue(System.currentTimeMillis() - start < 5000L, "Connected after the silent client timed out");
+		Assertions.assertEquals(1, server.getConnectionCount());
+	}
+
+	/**
+	 * @return last rates received by a subscriber of the downstream
+	 */
+	private Map<String, Double> downstream() {
+		final TestPriceProcessor processor = new TestPriceProcessor();
+		downstream(processor);
+
+		return processor.last();
+	}
+
+	private RelayClient downstream(TestPriceProcessor processor) {
+		final ThrottlerFixture fixture = throttler();
+		fixture.start().subscribe(processor);
+
+		final RelayClient client = new RelayClient(config, fixture.publisher());
+		client.start();
+		resources.add(client);
+
+		return client;
+	}
+
+	private ThrottlerFixture throttler() {
+		final ThrottlerFixture fixture = new ThrottlerFixture();
+		fixtures.add(fixture);
+
+		return fixture;
+	}
+}
@@ -0,0 +1,159 @@
+package com.price.processor;
+
+import com.price.processor.exception.ApplicationErrorException;
+import com.price.processor.ipc.PriceSnapshot;
+import com.price.processor.ipc.SharedPriceTableLayout;
+import com.price.processor.ipc.SharedPriceTableReader;
+import com.price.processor.ipc.SharedPriceTableWriter;
+import com.price.processor.model.CcyPair;
+import com.price.processor.service.CurrencyUtil;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class SharedPriceTableTest {
+	@TempDir
+	Path dir;
+
+	@Test
+	public void when_rate_published_expect_reader_to_see_it() throws IOException, ApplicationErrorException {
+		final CcyPair pair = CurrencyUtil.codePairToCurrPair("EURRUB");
+		final Path path = dir.resolve("prices");
+		try (SharedPriceTableWriter writer = new SharedPriceTableWriter(path, 16);
+			 SharedPriceTableReader reader = SharedPriceTableReader.open(path)) {
+			Assertions.assertEquals(-1, reader.findSlot("EURRUB"));
+
+			writer.publish(3, pair.code(), 85.5D, 1000L, 1L);
+			final int slot = reader.findSlot("EURRUB");
+			Assertions.assertEquals(3, slot);
+			Assertions.assertEquals(4, reader.usedSlots());
+
+			final PriceSnapshot snapshot = new PriceSnapshot();
+			Assertions.assertTrue(reader.read(slot, snapshot));
+			Assertions.assertEquals("EURRUB", snapshot.getPairName());
+			Assertions.assertEquals(85.5D, snapshot.getRate());
+			Assertions.assertEquals(1L, snapshot.getVersion());
+			Assertions.assertFalse(reader.hasChanged(slot, snapshot.getSequence()));
+
+			writer.publish(3, pair.code(), 86.0D, 2000L, 2L);
+			Assertions.assertTrue(reader.awaitChange(slot, snapshot.getSequence(), 0L, 1_000_000_000L, snapshot));
+			Assertions.assertEquals(86.0D, snapshot.getRate());
+			Assertions.assertEquals(2000L, snapshot.getTimestampMillis());
+		}
+	}
+
+	@Test
+	public void when_older_version_published_late_expect_it_dropped() throws IOException, ApplicationErrorException {
+		final CcyPair pair = CurrencyUtil.codePairToCurrPair("EURRUB");
+		final Path path = dir.resolve("prices");
+		try (SharedPriceTableWriter writer = new SharedPriceTableWriter(path, 16);
+			 SharedPriceTableReader reader = SharedPriceTableReader.open(path)) {
+			// Two producers of the pair, the one with the older version is the last to publish
+			writer.publish(3, pair.code(), 86.0D, 2000L, 2L);
+			writer.publish(3, pair.code(), 85.5D, 1000L, 1L);
+
+			final PriceSnapshot snapshot = new PriceSnapshot();
+			Assertions.assertTrue(reader.read(3, snapshot));
+			Assertions.assertEquals(86.0D, snapshot.getRate());
+			Assertions.assertEquals(2L, snapshot.getVersion());
+		}
+	}
+
+	@Test
+	public void when_writer_restarts_with_fewer_slots_expect_mapped_reader_to_keep_working() throws Exception {
+		final CcyPair pair = CurrencyUtil.codePairToCurrPair("EURRUB");
+		final Path path = dir.resolve("prices");
+		try (SharedPriceTableWriter writer = new SharedPriceTableWriter(path, 16)) {
+			writer.publish(10, pair.code(), 85.5D, 1000L, 1L);
+		}
+
+		try (SharedPriceTableReader reader = SharedPriceTableReader.open(path)) {
+			final long epoch = reader.writerEpoch();
+			final PriceSnapshot snapshot = new PriceSnapshot();
+			Assertions.assertTrue(reader.read(10, snapshot));
+
+			Thread.sleep(2L);
+			try (SharedPriceTableWriter writer = new SharedPriceTableWriter(path, 4)) {
+				// The file is not shrunk under the reader, the slot beyond the new table is cleared
+				Assertions.assertEquals(SharedPriceTableLayout.fileSize(16), Files.size(path));
+				Assertions.assertNotEquals(epoch, reader.writerEpoch());
+				Assertions.assertFalse(reader.read(10, snapshot));
+				Assertions.assertEquals(-1, reader.findSlot("EURRUB"));
+
+				writer.publish(2, pair.code(), 86.0D, 2000L, 1L);
+				Assertions.assertEquals(2, reader.findSlot("EURRUB"));
+			}
+		}
+	}
+
+	@Test
+	public void when_writer_is_busy_expect_no_torn_reads() throws Exception {
+		final Path path = dir.resolve("prices");
+		try (SharedPriceTableWriter writer = new SharedPriceTableWriter(path, 1);
+			 SharedPriceTableReader reader = SharedPriceTableReader.open(path)) {
+			final AtomicBoolean running = new AtomicBoolean(true);
+			final Thread writerThread = new Thread(() -> {
+				long version = 0L;
+				while (running.get()) {
+					version++;
+					writer.publish(0, (int) version, version, version, version);
+				}
+			});
+			writerThread.start();
+
+			final PriceSnapshot snapshot = new PriceSnapshot();
+			for (int i = 0; i < 1_000_000; i++) {
+				if (reader.read(0, snapshot)) {
+					Assertions.assertEquals(snapshot.getVersion(), (long) snapshot.getRate());
+					Assertions.assertEquals(snapshot.getVersion(), snapshot.getTimestampMillis());
+					Assertions.assertEquals((int) snapshot.getVersion(), snapshot.getPairCode());
+				}
+			}
+			running.set(false);
+			writerThread.join();
+		}
+	}
+
+	@Test
+	public void when_writer_died_mid_publish_expect_no_hang() throws Exception {
+		final CcyPair pair = CurrencyUtil.codePairToCurrPair("EURRUB");
+		final Path path = dir.resolve("prices");
+		try (SharedPriceTableWriter writer = new SharedPriceTableWriter(path, 4)) {
+			writer.publish(1, pair.code(), 85.5D, 1000L, 1L);
+		}
+		// What a writer killed between making the sequence odd and making it even again leaves behind
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			final MappedByteBuffer buffer = channel.map(MapMode.READ_WRITE, 0, channel.size());
+			final VarHandle longs = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+			final int offset = SharedPriceTableLayout.HEADER_SIZE + SharedPriceTableLayout.SLOT_SIZE;
+			longs.setVolatile(buffer, offset, (long) longs.getVolatile(buffer, offset) + 1L);
+		}
+
+		try (SharedPriceTableReader reader = SharedPriceTableReader.open(path)) {
+			final PriceSnapshot snapshot = new PriceSnapshot();
+			Assertions.assertFalse(Assertions.assertTimeoutPreemptively(Duration.ofSeconds(5), () -> reader.read(1, snapshot)));
+
+			try (SharedPriceTableWriter writer = Assertions.assertTimeoutPreemptively(Duration.ofSeconds(5),
+				() -> new SharedPriceTableWriter(path, 4))) {
+				Assertions.assertEquals(0L, reader.sequence(1) & 1L);
+				Assertions.assertFalse(reader.read(1, snapshot));
+
+				writer.publish(1, pair.code(), 86.0D, 2000L, 1L);
+				Assertions.assertTrue(reader.read(1, snapshot));
+				Assertions.assertEquals(86.0D, snapshot.getRate());
+			}
+		}
+	}
+}
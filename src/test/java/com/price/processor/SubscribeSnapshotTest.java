@@ -0,0 +1,54 @@
+package com.price.processor;
+
+import com.price.processor.service.PriceThrottler;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class SubscribeSnapshotTest {
+	private final ThrottlerFixture fixture = new ThrottlerFixture();
+	private PriceThrottler throttler;
+
+	@BeforeEach
+	public void setup() {
+		fixture.exchangeRatesConfig.setRareChangingThreshold(Duration.ofMillis(50L));
+		fixture.throttlerConfig.setMaxSubscribers(4);
+		throttler = fixture.start();
+	}
+
+	@AfterEach
+	public void teardown() {
+		fixture.shutdown();
+	}
+
+	@Test
+	public void when_subscribed_expect_last_rates_with_rare_first() throws Exception {
+		fixture.publish("EURRUB", 80.0D);
+		Thread.sleep(100L);
+		fixture.publish("EURUSD", 1.1D);
+		fixture.publish("USDJPY", 110.0D);
+		fixture.publish("EURUSD", 1.2D);
+
+		final TestPriceProcessor processor = new TestPriceProcessor();
+		throttler.subscribe(processor);
+
+		ThrottlerFixture.await(() -> processor.deliveries() >= 3);
+		Assertions.assertEquals(List.of("EURRUB=80.0", "EURUSD=1.2", "USDJPY=110.0"), processor.prices());
+	}
+
+	@Test
+	public void when_nothing_published_yet_expect_nothing_delivered_on_subscribe() throws Exception {
+		final TestPriceProcessor processor = new TestPriceProcessor();
+		throttler.subscribe(processor);
+
+		Thread.sleep(200L);
+		Assertions.assertEquals(0, processor.deliveries());
+
+		fixture.publish("EURUSD", 1.1D);
+		ThrottlerFixture.await(() -> processor.deliveries() >= 1);
+		Assertions.assertEquals(List.of("EURUSD=1.1"), processor.prices());
+	}
+}
@@ -0,0 +1,124 @@
+package com.price.processor;
+
+import com.price.processor.service.PriceProcessor;
+import com.price.processor.time.TimeSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Subscriber of the tests: records every rate it gets and runs the given work in {@link #onPrice}.
+ */
+class TestPriceProcessor implements PriceProcessor {
+	private final String name;
+	private final Runnable work;
+	// Names of the processors in the delivery order, shared by several processors
+	private final List<String> journal;
+	private final List<String> prices = Collections.synchronizedList(new ArrayList<>());
+	private final Map<String, Double> last = new ConcurrentHashMap<>();
+	private final AtomicInteger outOfOrder = new AtomicInteger();
+	private final AtomicInteger cancels = new AtomicInteger();
+
+	TestPriceProcessor() {
+		this(() -> {});
+	}
+
+	TestPriceProcessor(Runnable work) {
+		this(null, work, null);
+	}
+
+	TestPriceProcessor(String name, Runnable work, List<String> journal) {
+		this.name = name;
+		this.work = work;
+		this.journal = journal;
+	}
+
+	/**
+	 * @return work sleeping on the time source, so it takes virtual time on a virtual one
+	 */
+	static Runnable sleeping(TimeSource timeSource, long millis) {
+		return () -> {
+			try {
+				timeSource.sleep(millis);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		};
+	}
+
+	static Runnable sleeping(long millis) {
+		return sleeping(TimeSource.system(), millis);
+	}
+
+	@Override
+	public void onPrice(String ccyPair, double rate) {
+		final Double previous = last.put(ccyPair, rate);
+		// The tests publish growing rates, so anything else is a delivery out of order
+		if (previous != null && previous >= rate) {
+			outOfOrder.incrementAndGet();
+		}
+		prices.add(ccyPair + "=" + rate);
+		if (journal != null) {
+			journal.add(name);
+		}
+		work.run();
+	}
+
+	@Override
+	public void subscribe(PriceProcessor priceProcessor) {
+	}
+
+	@Override
+	public void unsubscribe(PriceProcessor priceProcessor) {
+	}
+
+	@Override
+	public boolean cancel() {
+		cancels.incrementAndGet();
+
+		return true;
+	}
+
+	/**
+	 * @return rates like 'EURUSD=1.1' in the delivery order
+	 */
+	List<String> prices() {
+		synchronized (prices) {
+			return new ArrayList<>(prices);
+		}
+	}
+
+	/**
+	 * @return rates of the pair in the delivery order
+	 */
+	List<Double> rates(String ccyPair) {
+		final String prefix = ccyPair + "=";
+
+		return prices().stream()
+			.filter(p -> p.startsWith(prefix))
+			.map(p -> Double.valueOf(p.substring(prefix.length())))
+			.toList();
+	}
+
+	/**
+	 * @return last rate of every pair
+	 */
+	Map<String, Double> last() {
+		return last;
+	}
+
+	int deliveries() {
+		return prices.size();
+	}
+
+	int outOfOrder() {
+		return outOfOrder.get();
+	}
+
+	int cancels() {
+		return cancels.get();
+	}
+}
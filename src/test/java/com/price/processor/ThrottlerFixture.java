@@ -0,0 +1,96 @@
+package com.price.processor;
+
+import com.price.processor.config.ExchangeRatesConfig;
+import com.price.processor.config.PriceThrottlerConfig;
+import com.price.processor.event.ExchangeRatesChangedEvent;
+import com.price.processor.exception.ApplicationErrorException;
+import com.price.processor.model.CcyPair;
+import com.price.processor.service.CurrencyUtil;
+import com.price.processor.service.ExchangeRatesMonitor;
+import com.price.processor.service.PriceThrottler;
+import com.price.processor.time.TimeSource;
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.Assertions;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.SimpleApplicationEventMulticaster;
+
+/**
+ * Monitor and throttler wired without Spring. Ticks are published through a Spring multicaster with the monitor
+ * registered first, like the application context does it.
+ * <p>
+ * Adjust the configs before {@link #start()}, call {@link #shutdown()} after every test.
+ */
+class ThrottlerFixture {
+	final ExchangeRatesConfig exchangeRatesConfig = new ExchangeRatesConfig();
+	final PriceThrottlerConfig throttlerConfig = new PriceThrottlerConfig();
+	private final TimeSource timeSource;
+	private final SimpleApplicationEventMulticaster multicaster = new SimpleApplicationEventMulticaster();
+	private ExchangeRatesMonitor monitor;
+	private PriceThrottler throttler;
+
+	ThrottlerFixture() {
+		this(TimeSource.system());
+	}
+
+	ThrottlerFixture(TimeSource timeSource) {
+		this.timeSource = timeSource;
+		exchangeRatesConfig.setRareChangingThreshold(Duration.ofDays(1L));
+		throttlerConfig.setMaxSubscribers(8);
+		throttlerConfig.setSoftTimeout(Duration.ofSeconds(5L));
+		throttlerConfig.setHardTimeout(Duration.ofMinutes(1L));
+	}
+
+	PriceThrottler start() {
+		monitor = new ExchangeRatesMonitor(exchangeRatesConfig, timeSource);
+		throttler = new PriceThrottler(throttlerConfig, monitor, timeSource);
+		throttler.init();
+		multicaster.addApplicationListener(monitor);
+		multicaster.addApplicationListener(throttler);
+
+		return throttler;
+	}
+
+	void shutdown() {
+		if (throttler != null) {
+			throttler.shutdown();
+		}
+	}
+
+	ExchangeRatesMonitor monitor() {
+		return monitor;
+	}
+
+	/**
+	 * @return publisher delivering to the monitor and the throttler, for the components publishing on their own
+	 */
+	ApplicationEventPublisher publisher() {
+		return event -> multicaster.multicastEvent((ApplicationEvent) event);
+	}
+
+	void publish(String ccyPair, double rate) {
+		publish(pair(ccyPair), rate);
+	}
+
+	void publish(CcyPair pair, double rate) {
+		multicaster.multicastEvent(new ExchangeRatesChangedEvent(this, Map.of(pair, rate)));
+	}
+
+	static CcyPair pair(String ccyPair) {
+		try {
+			return CurrencyUtil.codePairToCurrPair(ccyPair);
+		} catch (ApplicationErrorException e) {
+			throw new IllegalArgumentException(e);
+		}
+	}
+
+	static void await(BooleanSupplier condition) throws InterruptedException {
+		final long deadline = System.currentTimeMillis() + 10000L;
+		while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10L);
+		}
+		Assertions.assertTrue(condition.getAsBoolean(), "Condition not met in 10 seconds");
+	}
+}
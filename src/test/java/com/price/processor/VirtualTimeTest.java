@@ -0,0 +1,62 @@
+package com.price.processor;
+
+import com.price.processor.model.SubscriberTier;
+import com.price.processor.service.PriceThrottler;
+import com.price.processor.time.VirtualTimeSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class VirtualTimeTest {
+	private static final long START = 1_000_000L;
+
+	private final VirtualTimeSource timeSource = new VirtualTimeSource(START);
+	private final ThrottlerFixture fixture = new ThrottlerFixture(timeSource);
+	private PriceThrottler throttler;
+
+	@BeforeEach
+	public void setup() {
+		fixture.exchangeRatesConfig.setRareChangingThreshold(Duration.ofMinutes(10L));
+		fixture.throttlerConfig.setWorkers(4);
+		fixture.throttlerConfig.setHardTimeout(Duration.ofMinutes(30L));
+		throttler = fixture.start();
+	}
+
+	@AfterEach
+	public void teardown() {
+		fixture.shutdown();
+	}
+
+	@Test
+	public void when_hours_simulated_expect_slow_subscriber_served_in_virtual_time() throws Exception {
+		final TestPriceProcessor fast = new TestPriceProcessor();
+		final TestPriceProcessor printer = new TestPriceProcessor(TestPriceProcessor.sleeping(timeSource, Duration.ofMinutes(2L).toMillis()));
+		throttler.subscribe(fast, SubscriberTier.REALTIME, 1);
+		throttler.subscribe(printer, SubscriberTier.BULK, 1);
+
+		final AtomicInteger hot = new AtomicInteger();
+		timeSource.scheduleAtFixedRate(() -> fixture.publish("EURUSD", hot.incrementAndGet()), 1000L, 1000L);
+		final AtomicInteger rare = new AtomicInteger();
+		final long rarePeriod = Duration.ofMinutes(30L).toMillis();
+		timeSource.scheduleAtFixedRate(() -> fixture.publish("EURRUB", 100.0D + rare.incrementAndGet()), rarePeriod, rarePeriod);
+
+		final long realStart = System.currentTimeMillis();
+		timeSource.runUntil(START + Duration.ofHours(2L).toMillis());
+		final long realElapsed = System.currentTimeMillis() - realStart;
+
+		Assertions.assertEquals(START + Duration.ofHours(2L).toMillis(), timeSource.currentTimeMillis());
+		Assertions.assertTrue(realElapsed < Duration.ofMinutes(1L).toMillis(), "2 hours took " + realElapsed + " ms");
+		Assertions.assertEquals(7200, hot.get());
+		Assertions.assertEquals(4, rare.get());
+
+		// The fast subscriber is up to date, the printer got a rate every 2 minutes and every rare one
+		Assertions.assertEquals(7200.0D, fast.last().get("EURUSD"));
+		Assertions.assertEquals(List.of(101.0D, 102.0D, 103.0D), fast.rates("EURRUB").subList(0, 3));
+		Assertions.assertTrue(printer.deliveries() >= 55 && printer.deliveries() <= 61, "printer got " + printer.deliveries());
+		Assertions.assertEquals(List.of(101.0D, 102.0D, 103.0D), printer.rates("EURRUB").subList(0, 3));
+	}
+}